@@ -0,0 +1,74 @@
+#!/bin/bash
+#
+# Runs the JMH benchmarks (as of <commit>) against two commits and prints the scores
+# side by side.
+#
+# Usage: ./scripts/compare-benchmarks.sh <base-commit> <commit> [JMH options]
+#
+# e.g.  ./scripts/compare-benchmarks.sh main HEAD FunctionInvocationBenchmarks -prof gc
+#
+
+set -e
+
+if [ $# -lt 2 ]; then
+	echo "Usage: $0 <base-commit> <commit> [JMH options]"
+	exit 1
+fi
+
+BASE=$1
+HEAD=$2
+shift 2
+JMH_OPTIONS=("$@")
+
+ROOT=$(git rev-parse --show-toplevel)
+MODULE=spring-cloud-function-benchmarks
+WORK=$(mktemp -d)
+
+cleanup() {
+	for name in base head; do
+		if [ -d "$WORK/$name" ]; then
+			git -C "$ROOT" worktree remove --force "$WORK/$name" > /dev/null 2>&1 || true
+		fi
+	done
+	git -C "$ROOT" worktree prune
+	rm -rf "$WORK"
+}
+trap cleanup EXIT
+
+# the benchmarks of <commit> are used for both commits, so the same code is measured
+# and commits which predate the benchmarks module can be compared as well
+use_benchmarks_of_head() {
+	local dir=$1
+	rm -rf "${dir:?}/$MODULE"
+	git -C "$ROOT" archive "$HEAD" "$MODULE" | tar -x -C "$dir"
+	if ! grep -q "<module>$MODULE</module>" "$dir/pom.xml"; then
+		sed -i.bak "s#</modules>#	<module>$MODULE</module></modules>#" "$dir/pom.xml"
+	fi
+	local version
+	version=$(cd "$dir" && ./mvnw -q -B -N help:evaluate -Dexpression=project.version -DforceStdout)
+	sed -i.bak "/<parent>/,/<\/parent>/s#<version>.*</version>#<version>$version</version>#" "$dir/$MODULE/pom.xml"
+}
+
+run() {
+	local commit=$1
+	local name=$2
+	git -C "$ROOT" worktree add --detach "$WORK/$name" "$commit" > /dev/null
+	use_benchmarks_of_head "$WORK/$name"
+	(cd "$WORK/$name" && ./mvnw -q -B -pl $MODULE -am package -DskipTests -Dcheckstyle.skip)
+	java -jar "$WORK/$name/$MODULE/target/benchmarks.jar" -rf csv -rff "$WORK/$name.csv" "${JMH_OPTIONS[@]}"
+	git -C "$ROOT" worktree remove --force "$WORK/$name"
+}
+
+run "$BASE" base
+run "$HEAD" head
+
+# join on benchmark name, mode and parameters (everything except score, error and unit)
+awk -F, '
+	FNR == 1 { next }
+	{
+		key = $1 "," $2; for (i = 8; i <= NF; i++) key = key "," $i
+		if (FNR == NR) { base[key] = $5; next }
+		change = base[key] != "" && base[key] != 0 ? sprintf("%+.1f%%", ($5 - base[key]) * 100 / base[key]) : "n/a"
+		printf "%-90s %15s %15s %10s %s\n", key, base[key], $5, change, $7
+	}
+' "$WORK/base.csv" "$WORK/head.csv"
@@ -23,6 +23,7 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -46,13 +47,14 @@ import org.springframework.cloud.function.context.FunctionCatalog;
 import org.springframework.cloud.function.context.catalog.FunctionInspector;
 import org.springframework.cloud.function.context.catalog.FunctionTypeUtils;
 import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
+import org.springframework.cloud.function.context.message.LazyMessageHeaders;
 import org.springframework.cloud.function.utils.FunctionClassUtils;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.env.Environment;
 import org.springframework.http.HttpStatus;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
-import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.GenericMessage;
 import org.springframework.util.Assert;
 import org.springframework.util.StreamUtils;
 import org.springframework.util.StringUtils;
@@ -167,7 +169,8 @@ public class FunctionInvoker implements RequestStreamHandler {
 			logger.info("Incoming JSON for ApiGateway Event: " + new String(payload));
 		}
 
-		MessageBuilder messageBuilder = null;
+		Object messagePayload = payload;
+		Map<String, ?> headers = null;
 		Object request = this.mapper.readValue(payload, Object.class);
 		Type inputType = function.getInputType();
 		if (FunctionTypeUtils.isMessage(inputType)) {
@@ -180,28 +183,24 @@ public class FunctionInvoker implements RequestStreamHandler {
 				List<Map<String, ?>> records = (List<Map<String, ?>>) requestMap.get("Records");
 				Assert.notEmpty(records, "Incoming event has no records: " + requestMap);
 				this.logEvent(records);
-				messageBuilder = MessageBuilder.withPayload(payload);
 			}
 			else if (requestMap.containsKey("httpMethod")) { // API Gateway
 				logger.info("Incoming request is API Gateway");
 				if (inputType.getTypeName().endsWith(APIGatewayProxyRequestEvent.class.getSimpleName())) {
-					APIGatewayProxyRequestEvent gatewayEvent = this.mapper.convertValue(requestMap, APIGatewayProxyRequestEvent.class);
-					messageBuilder = MessageBuilder.withPayload(gatewayEvent);
+					messagePayload = this.mapper.convertValue(requestMap, APIGatewayProxyRequestEvent.class);
 				}
 				else if (mapInputType) {
-					messageBuilder = MessageBuilder.withPayload(requestMap).setHeader("httpMethod", requestMap.get("httpMethod"));
+					messagePayload = requestMap;
+					headers = Collections.singletonMap("httpMethod", requestMap.get("httpMethod"));
 				}
 				else {
 					Object body = requestMap.remove("body");
-					body = body instanceof String ? String.valueOf(body).getBytes(StandardCharsets.UTF_8) : mapper.writeValueAsBytes(body);
-					messageBuilder = MessageBuilder.withPayload(body).copyHeaders(requestMap);
+					messagePayload = body instanceof String ? String.valueOf(body).getBytes(StandardCharsets.UTF_8) : mapper.writeValueAsBytes(body);
+					headers = requestMap;
 				}
 			}
 		}
-		if (messageBuilder == null) {
-			messageBuilder = MessageBuilder.withPayload(payload);
-		}
-		return messageBuilder.setHeader("aws-context", context).build();
+		return new GenericMessage(messagePayload, LazyMessageHeaders.of(headers, Collections.singletonMap("aws-context", context)));
 	}
 
 	private void logEvent(List<Map<String, ?>> records) {
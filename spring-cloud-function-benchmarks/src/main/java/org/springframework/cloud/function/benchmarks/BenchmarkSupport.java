@@ -0,0 +1,194 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.function.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+
+import org.springframework.cloud.function.context.catalog.BeanFactoryAwareFunctionRegistry;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry;
+import org.springframework.cloud.function.context.config.JsonMessageConverter;
+import org.springframework.cloud.function.context.config.SmartCompositeMessageConverter;
+import org.springframework.cloud.function.json.GsonMapper;
+import org.springframework.cloud.function.json.JacksonMapper;
+import org.springframework.cloud.function.json.JsonMapper;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+
+/**
+ * Infrastructure and payloads shared by the benchmarks. The registry is assembled the
+ * same way as by the auto-configuration, just without the application context.
+ *
+ * @author Oleg Zhurakousky
+ */
+final class BenchmarkSupport {
+
+	private BenchmarkSupport() {
+	}
+
+	static JsonMapper jsonMapper(String name) {
+		return "gson".equals(name) ? new GsonMapper(new Gson()) : new JacksonMapper(new ObjectMapper());
+	}
+
+	static SimpleFunctionRegistry functionRegistry() {
+		return functionRegistry(jsonMapper("jackson"));
+	}
+
+	static SimpleFunctionRegistry functionRegistry(JsonMapper jsonMapper) {
+		return new SimpleFunctionRegistry(new DefaultConversionService(), messageConverter(jsonMapper), jsonMapper);
+	}
+
+	static BeanFactoryAwareFunctionRegistry functionRegistry(ApplicationContext applicationContext) {
+		JsonMapper jsonMapper = jsonMapper("jackson");
+		BeanFactoryAwareFunctionRegistry functionRegistry = new BeanFactoryAwareFunctionRegistry(
+				new DefaultConversionService(), messageConverter(jsonMapper), jsonMapper);
+		functionRegistry.setApplicationContext(applicationContext);
+		return functionRegistry;
+	}
+
+	private static SmartCompositeMessageConverter messageConverter(JsonMapper jsonMapper) {
+		List<MessageConverter> messageConverters = new ArrayList<>();
+		messageConverters.add(new JsonMessageConverter(jsonMapper));
+		messageConverters.add(new ByteArrayMessageConverter());
+		messageConverters.add(new StringMessageConverter());
+		return new SmartCompositeMessageConverter(messageConverters);
+	}
+
+	static Object payload(String size) {
+		return "large".equals(size) ? LargePojo.create(100) : SmallPojo.create();
+	}
+
+	static Class<?> payloadType(String size) {
+		return "large".equals(size) ? LargePojo.class : SmallPojo.class;
+	}
+
+	/**
+	 * Typical event (a handful of scalar fields).
+	 */
+	public static class SmallPojo {
+
+		private String id;
+
+		private String name;
+
+		private int count;
+
+		private boolean active;
+
+		static SmallPojo create() {
+			SmallPojo pojo = new SmallPojo();
+			pojo.setId("2f6e8b1c-7c43-4f0e-9a53-4d0c3a9d1e27");
+			pojo.setName("Ricky Bobby");
+			pojo.setCount(42);
+			pojo.setActive(true);
+			return pojo;
+		}
+
+		public String getId() {
+			return this.id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getCount() {
+			return this.count;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+
+		public boolean isActive() {
+			return this.active;
+		}
+
+		public void setActive(boolean active) {
+			this.active = active;
+		}
+	}
+
+	/**
+	 * Document with nested collection (a few kilobytes as JSON).
+	 */
+	public static class LargePojo {
+
+		private String id;
+
+		private String description;
+
+		private List<SmallPojo> items;
+
+		static LargePojo create(int size) {
+			LargePojo pojo = new LargePojo();
+			pojo.setId("5a1d3c0e-94b2-4a55-8b3e-0c2f7d6e8a91");
+			StringBuilder description = new StringBuilder();
+			for (int i = 0; i < 10; i++) {
+				description.append("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ");
+			}
+			pojo.setDescription(description.toString());
+			List<SmallPojo> items = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				SmallPojo item = SmallPojo.create();
+				item.setCount(i);
+				items.add(item);
+			}
+			pojo.setItems(items);
+			return pojo;
+		}
+
+		public String getId() {
+			return this.id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public String getDescription() {
+			return this.description;
+		}
+
+		public void setDescription(String description) {
+			this.description = description;
+		}
+
+		public List<SmallPojo> getItems() {
+			return this.items;
+		}
+
+		public void setItems(List<SmallPojo> items) {
+			this.items = items;
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.function.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.cloud.function.context.FunctionRegistration;
+import org.springframework.cloud.function.context.FunctionType;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+/**
+ * Invocation of composed functions (e.g., 'f1|f2|f3') of increasing depth.
+ *
+ * @author Oleg Zhurakousky
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@State(Scope.Benchmark)
+public class FunctionCompositionBenchmarks {
+
+	@Param({ "1", "2", "3", "4", "5" })
+	public int depth;
+
+	private FunctionInvocationWrapper function;
+
+	private Message<byte[]> message;
+
+	@Setup
+	public void setup() {
+		SimpleFunctionRegistry functionRegistry = BenchmarkSupport.functionRegistry();
+		StringBuilder definition = new StringBuilder();
+		for (int i = 1; i <= this.depth; i++) {
+			functionRegistry.register(new FunctionRegistration<Function<String, String>>(value -> value, "f" + i)
+					.type(FunctionType.from(String.class).to(String.class)));
+			if (definition.length() > 0) {
+				definition.append('|');
+			}
+			definition.append('f').append(i);
+		}
+		this.function = functionRegistry.lookup(definition.toString());
+		this.message = MessageBuilder.withPayload("hello".getBytes())
+				.setHeader(MessageHeaders.CONTENT_TYPE, "text/plain")
+				.build();
+	}
+
+	@Benchmark
+	public Object plainInput() {
+		return this.function.apply("hello");
+	}
+
+	@Benchmark
+	public Object messageInput() {
+		return this.function.apply(this.message);
+	}
+
+}
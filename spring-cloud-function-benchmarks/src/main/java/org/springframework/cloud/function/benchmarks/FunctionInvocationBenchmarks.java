@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.function.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import org.springframework.cloud.function.benchmarks.BenchmarkSupport.SmallPojo;
+import org.springframework.cloud.function.context.FunctionRegistration;
+import org.springframework.cloud.function.context.FunctionType;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
+import org.springframework.cloud.function.context.metrics.MicrometerFunctionAroundWrapper;
+import org.springframework.cloud.function.json.JsonMapper;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+/**
+ * Per-call cost of invoking a looked-up function with plain, {@link Message} and
+ * {@link org.reactivestreams.Publisher} input, with and without Micrometer instrumentation.
+ *
+ * @author Oleg Zhurakousky
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@State(Scope.Benchmark)
+public class FunctionInvocationBenchmarks {
+
+	/**
+	 * Number of elements emitted by the Publisher input.
+	 */
+	static final int FLUX_SIZE = 100;
+
+	@Param({ "none", "micrometer" })
+	public String instrumentation;
+
+	private FunctionInvocationWrapper plainFunction;
+
+	private FunctionInvocationWrapper messageFunction;
+
+	private FunctionInvocationWrapper reactiveFunction;
+
+	private Message<byte[]> message;
+
+	private List<String> fluxInput;
+
+	@Setup
+	public void setup() {
+		SimpleFunctionRegistry functionRegistry = BenchmarkSupport.functionRegistry();
+		if ("micrometer".equals(this.instrumentation)) {
+			functionRegistry.setFunctionAroundWrapper(new MicrometerFunctionAroundWrapper(new SimpleMeterRegistry()));
+		}
+		functionRegistry.register(new FunctionRegistration<Function<String, String>>(String::toUpperCase, "uppercase")
+				.type(FunctionType.from(String.class).to(String.class)));
+		functionRegistry.register(new FunctionRegistration<Function<SmallPojo, SmallPojo>>(pojo -> {
+			pojo.setCount(pojo.getCount() + 1);
+			return pojo;
+		}, "increment").type(FunctionType.from(SmallPojo.class).to(SmallPojo.class)));
+		functionRegistry.register(new FunctionRegistration<Function<Flux<String>, Flux<String>>>(
+				flux -> flux.map(String::toUpperCase), "reactiveUppercase")
+				.type(FunctionType.from(String.class).to(String.class).wrap(Flux.class)));
+
+		this.plainFunction = functionRegistry.lookup("uppercase");
+		this.messageFunction = functionRegistry.lookup("increment", "application/json");
+		this.reactiveFunction = functionRegistry.lookup("reactiveUppercase");
+
+		JsonMapper jsonMapper = BenchmarkSupport.jsonMapper("jackson");
+		this.message = MessageBuilder.withPayload(jsonMapper.toJson(SmallPojo.create()))
+				.setHeader(MessageHeaders.CONTENT_TYPE, "application/json")
+				.build();
+		this.fluxInput = new ArrayList<>(FLUX_SIZE);
+		for (int i = 0; i < FLUX_SIZE; i++) {
+			this.fluxInput.add("hello" + i);
+		}
+	}
+
+	@Benchmark
+	public Object plainInput() {
+		return this.plainFunction.apply("hello");
+	}
+
+	@Benchmark
+	public Object messageInput() {
+		return this.messageFunction.apply(this.message);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Benchmark
+	public Object publisherInput() {
+		return ((Flux<Object>) this.reactiveFunction.apply(Flux.fromIterable(this.fluxInput))).blockLast();
+	}
+
+}
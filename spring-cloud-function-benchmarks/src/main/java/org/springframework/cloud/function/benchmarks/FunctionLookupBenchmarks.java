@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.function.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.cloud.function.context.FunctionRegistration;
+import org.springframework.cloud.function.context.FunctionType;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry;
+
+/**
+ * Lookup of functions from a registry populated with a realistic number of functions.
+ *
+ * @author Oleg Zhurakousky
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@State(Scope.Benchmark)
+public class FunctionLookupBenchmarks {
+
+	private SimpleFunctionRegistry functionRegistry;
+
+	@Setup
+	public void setup() {
+		this.functionRegistry = BenchmarkSupport.functionRegistry();
+		for (int i = 0; i < 50; i++) {
+			this.functionRegistry.register(new FunctionRegistration<Function<String, String>>(value -> value, "function" + i)
+					.type(FunctionType.from(String.class).to(String.class)));
+		}
+		this.functionRegistry.register(new FunctionRegistration<Function<String, String>>(String::toUpperCase, "uppercase")
+				.type(FunctionType.from(String.class).to(String.class)));
+		this.functionRegistry.register(new FunctionRegistration<Function<String, String>>(
+				value -> new StringBuilder(value).reverse().toString(), "reverse")
+				.type(FunctionType.from(String.class).to(String.class)));
+	}
+
+	@Benchmark
+	public Object lookup() {
+		return this.functionRegistry.lookup("uppercase");
+	}
+
+	@Benchmark
+	public Object lookupWithOutputContentType() {
+		return this.functionRegistry.lookup("uppercase", "application/json");
+	}
+
+	@Benchmark
+	public Object lookupComposition() {
+		return this.functionRegistry.lookup("uppercase|reverse");
+	}
+
+}
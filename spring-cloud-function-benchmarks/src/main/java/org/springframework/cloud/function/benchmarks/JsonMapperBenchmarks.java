@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.function.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.cloud.function.json.JsonMapper;
+
+/**
+ * JSON conversion of small and large POJOs by the {@link JsonMapper} implementations.
+ *
+ * @author Oleg Zhurakousky
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@State(Scope.Benchmark)
+public class JsonMapperBenchmarks {
+
+	@Param({ "jackson", "gson" })
+	public String mapper;
+
+	@Param({ "small", "large" })
+	public String size;
+
+	private JsonMapper jsonMapper;
+
+	private Object payload;
+
+	private Class<?> payloadType;
+
+	private byte[] json;
+
+	private String jsonString;
+
+	@Setup
+	public void setup() {
+		this.jsonMapper = BenchmarkSupport.jsonMapper(this.mapper);
+		this.payload = BenchmarkSupport.payload(this.size);
+		this.payloadType = BenchmarkSupport.payloadType(this.size);
+		this.json = this.jsonMapper.toJson(this.payload);
+		this.jsonString = new String(this.json);
+	}
+
+	@Benchmark
+	public Object fromJsonBytes() {
+		return this.jsonMapper.fromJson(this.json, this.payloadType);
+	}
+
+	@Benchmark
+	public Object fromJsonString() {
+		return this.jsonMapper.fromJson(this.jsonString, this.payloadType);
+	}
+
+	@Benchmark
+	public byte[] toJson() {
+		return this.jsonMapper.toJson(this.payload);
+	}
+
+	@Benchmark
+	public boolean isJsonString() {
+		return JsonMapper.isJsonString(this.json);
+	}
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.function.benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.cloud.function.benchmarks.BenchmarkSupport.SmallPojo;
+import org.springframework.cloud.function.context.FunctionCatalog;
+import org.springframework.cloud.function.json.JsonMapper;
+import org.springframework.cloud.function.web.mvc.ReactorAutoConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+/**
+ * POST of text and JSON to imperative functions exposed by Spring MVC, handled either
+ * synchronously ('imperative') or through Reactor and async dispatch ('reactive', same as
+ * with 'spring.cloud.function.web.imperative=false'). Requests are processed by
+ * {@code MockMvc}, so the numbers include the dispatcher but not the network.
+ *
+ * @author Oleg Zhurakousky
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@State(Scope.Benchmark)
+public class MvcFunctionBenchmarks {
+
+	@Param({ "imperative", "reactive" })
+	private String path;
+
+	@Param({ "text", "json" })
+	private String payload;
+
+	private AnnotationConfigWebApplicationContext applicationContext;
+
+	private MockMvc mockMvc;
+
+	private MockHttpServletRequestBuilder request;
+
+	@Setup
+	public void setup() throws Exception {
+		this.applicationContext = new AnnotationConfigWebApplicationContext();
+		this.applicationContext.setServletContext(new MockServletContext());
+		this.applicationContext.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark",
+				Collections.<String, Object>singletonMap("spring.cloud.function.web.imperative", "imperative".equals(this.path))));
+		this.applicationContext.register(WebConfiguration.class);
+		this.applicationContext.refresh();
+		this.mockMvc = MockMvcBuilders.webAppContextSetup(this.applicationContext).build();
+		this.request = "json".equals(this.payload)
+				? MockMvcRequestBuilders.post("/pojo").contentType(MediaType.APPLICATION_JSON)
+						.content(new ObjectMapper().writeValueAsBytes(SmallPojo.create()))
+				: MockMvcRequestBuilders.post("/uppercase").contentType(MediaType.TEXT_PLAIN).content("hello");
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.applicationContext.close();
+	}
+
+	@Benchmark
+	public byte[] post() throws Exception {
+		MvcResult result = this.mockMvc.perform(this.request).andReturn();
+		if (result.getRequest().isAsyncStarted()) {
+			result = this.mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result)).andReturn();
+		}
+		return result.getResponse().getContentAsByteArray();
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@EnableWebMvc
+	@Import(ReactorAutoConfiguration.class)
+	static class WebConfiguration {
+
+		@Bean
+		public FunctionCatalog functionCatalog(ApplicationContext applicationContext) {
+			return BenchmarkSupport.functionRegistry(applicationContext);
+		}
+
+		@Bean
+		public JsonMapper jsonMapper() {
+			return BenchmarkSupport.jsonMapper("jackson");
+		}
+
+		@Bean
+		public UppercaseFunction uppercase() {
+			return new UppercaseFunction();
+		}
+
+		@Bean
+		public PojoFunction pojo() {
+			return new PojoFunction();
+		}
+	}
+
+	static class UppercaseFunction implements Function<String, String> {
+
+		@Override
+		public String apply(String value) {
+			return value.toUpperCase();
+		}
+	}
+
+	static class PojoFunction implements Function<SmallPojo, SmallPojo> {
+
+		@Override
+		public SmallPojo apply(SmallPojo value) {
+			value.setCount(value.getCount() + 1);
+			return value;
+		}
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.function.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import org.springframework.cloud.function.context.FunctionProperties;
+import org.springframework.cloud.function.context.FunctionProperties.FunctionConfigurationProperties;
+import org.springframework.cloud.function.context.FunctionRegistration;
+import org.springframework.cloud.function.context.FunctionType;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
+
+/**
+ * Throughput of CPU bound imperative function applied to Publisher input with
+ * increasing concurrency ('spring.cloud.function.configuration.[name].concurrency').
+ *
+ * @author Oleg Zhurakousky
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@State(Scope.Benchmark)
+public class ParallelExecutionBenchmarks {
+
+	@Param({ "1", "2", "4", "8" })
+	public int concurrency;
+
+	private FunctionInvocationWrapper function;
+
+	private List<String> input;
+
+	@Setup
+	public void setup() {
+		SimpleFunctionRegistry functionRegistry = BenchmarkSupport.functionRegistry();
+		FunctionProperties functionProperties = new FunctionProperties();
+		FunctionConfigurationProperties configuration = new FunctionConfigurationProperties();
+		configuration.setConcurrency(this.concurrency);
+		functionProperties.getConfiguration().put("work", configuration);
+		functionRegistry.setFunctionProperties(functionProperties);
+		functionRegistry.register(new FunctionRegistration<Function<String, String>>(value -> {
+			Blackhole.consumeCPU(10_000);
+			return value;
+		}, "work").type(FunctionType.from(String.class).to(String.class)));
+		this.function = functionRegistry.lookup("work");
+
+		this.input = new ArrayList<>(FunctionInvocationBenchmarks.FLUX_SIZE);
+		for (int i = 0; i < FunctionInvocationBenchmarks.FLUX_SIZE; i++) {
+			this.input.add("hello" + i);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Benchmark
+	public Object publisherInput() {
+		return ((Flux<Object>) this.function.apply(Flux.fromIterable(this.input))).blockLast();
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.function.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.cloud.function.context.catalog.BeanFactoryAwareFunctionRegistry;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Invocation of POJO functions (beans which do not implement any of the functional
+ * interfaces) compared to a plain {@link Function} bean. The 'proxy' benchmark replicates
+ * how POJO functions used to be invoked (AOP proxy delegating to the method via
+ * reflection), while 'invoker' uses the target registered by
+ * {@link BeanFactoryAwareFunctionRegistry}. The 'catalog' benchmarks include the
+ * overhead of function invocation wrapper.
+ *
+ * @author Oleg Zhurakousky
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@State(Scope.Benchmark)
+public class PojoFunctionBenchmarks {
+
+	private GenericApplicationContext applicationContext;
+
+	private Function<Object, Object> proxy;
+
+	private Function<Object, Object> invoker;
+
+	private Function<Object, Object> function;
+
+	private FunctionInvocationWrapper pojoFunction;
+
+	private FunctionInvocationWrapper plainFunction;
+
+	@SuppressWarnings("unchecked")
+	@Setup
+	public void setup() {
+		this.applicationContext = new GenericApplicationContext();
+		this.applicationContext.registerBean("uppercasePojo", UppercasePojo.class, UppercasePojo::new);
+		this.applicationContext.registerBean("uppercase", UppercaseFunction.class, UppercaseFunction::new);
+		this.applicationContext.refresh();
+
+		BeanFactoryAwareFunctionRegistry functionRegistry = BenchmarkSupport.functionRegistry(this.applicationContext);
+		this.pojoFunction = functionRegistry.lookup("uppercasePojo");
+		this.plainFunction = functionRegistry.lookup("uppercase");
+		this.invoker = (Function<Object, Object>) this.pojoFunction.getTarget();
+		this.function = (Function<Object, Object>) this.applicationContext.getBean("uppercase");
+		this.proxy = proxy(this.applicationContext.getBean(UppercasePojo.class));
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.applicationContext.close();
+	}
+
+	@Benchmark
+	public Object proxy() {
+		return this.proxy.apply("hello");
+	}
+
+	@Benchmark
+	public Object invoker() {
+		return this.invoker.apply("hello");
+	}
+
+	@Benchmark
+	public Object function() {
+		return this.function.apply("hello");
+	}
+
+	@Benchmark
+	public Object catalogPojoFunction() {
+		return this.pojoFunction.apply("hello");
+	}
+
+	@Benchmark
+	public Object catalogFunction() {
+		return this.plainFunction.apply("hello");
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Function<Object, Object> proxy(Object target) {
+		Method method = ReflectionUtils.findMethod(target.getClass(), "uppercase", String.class);
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.setProxyTargetClass(true);
+		pf.setInterfaces(Function.class);
+		pf.addAdvice((MethodInterceptor) invocation -> method.invoke(invocation.getThis(), invocation.getArguments()));
+		return (Function<Object, Object>) pf.getProxy();
+	}
+
+	/**
+	 * POJO function.
+	 */
+	public static class UppercasePojo {
+
+		public String uppercase(String value) {
+			return value.toUpperCase();
+		}
+	}
+
+	/**
+	 * Equivalent plain function.
+	 */
+	public static class UppercaseFunction implements Function<String, String> {
+
+		@Override
+		public String apply(String value) {
+			return value.toUpperCase();
+		}
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.function.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.cloud.function.context.FunctionProperties;
+import org.springframework.cloud.function.context.FunctionRegistration;
+import org.springframework.cloud.function.context.FunctionType;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry;
+import org.springframework.cloud.function.context.config.RoutingFunction;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+/**
+ * Routing of messages by {@link RoutingFunction} using the function definition header,
+ * the routing expression header and the routing expression property.
+ *
+ * @author Oleg Zhurakousky
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@State(Scope.Benchmark)
+public class RoutingFunctionBenchmarks {
+
+	private RoutingFunction routingFunction;
+
+	private RoutingFunction expressionRoutingFunction;
+
+	private Message<byte[]> definitionMessage;
+
+	private Message<byte[]> expressionMessage;
+
+	private Message<byte[]> targetMessage;
+
+	@Setup
+	public void setup() {
+		SimpleFunctionRegistry functionRegistry = BenchmarkSupport.functionRegistry();
+		functionRegistry.register(new FunctionRegistration<Function<String, String>>(String::toUpperCase, "uppercase")
+				.type(FunctionType.from(String.class).to(String.class)));
+		functionRegistry.register(new FunctionRegistration<Function<String, String>>(
+				value -> new StringBuilder(value).reverse().toString(), "reverse")
+				.type(FunctionType.from(String.class).to(String.class)));
+
+		this.routingFunction = new RoutingFunction(functionRegistry, new FunctionProperties());
+		FunctionProperties functionProperties = new FunctionProperties();
+		functionProperties.setRoutingExpression("headers.target");
+		this.expressionRoutingFunction = new RoutingFunction(functionRegistry, functionProperties);
+
+		this.definitionMessage = MessageBuilder.withPayload("hello".getBytes())
+				.setHeader(MessageHeaders.CONTENT_TYPE, "text/plain")
+				.setHeader("spring.cloud.function.definition", "uppercase")
+				.build();
+		this.expressionMessage = MessageBuilder.withPayload("hello".getBytes())
+				.setHeader(MessageHeaders.CONTENT_TYPE, "text/plain")
+				.setHeader("spring.cloud.function.routing-expression", "headers.target")
+				.setHeader("target", "reverse")
+				.build();
+		this.targetMessage = MessageBuilder.withPayload("hello".getBytes())
+				.setHeader(MessageHeaders.CONTENT_TYPE, "text/plain")
+				.setHeader("target", "reverse")
+				.build();
+	}
+
+	@Benchmark
+	public Object byDefinitionHeader() {
+		return this.routingFunction.apply(this.definitionMessage);
+	}
+
+	@Benchmark
+	public Object byExpressionHeader() {
+		return this.routingFunction.apply(this.expressionMessage);
+	}
+
+	@Benchmark
+	public Object byExpressionProperty() {
+		return this.expressionRoutingFunction.apply(this.targetMessage);
+	}
+
+}
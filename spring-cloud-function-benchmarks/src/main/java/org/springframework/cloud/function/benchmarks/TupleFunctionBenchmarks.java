@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.function.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import org.springframework.cloud.function.context.FunctionRegistration;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
+import org.springframework.core.ResolvableType;
+
+/**
+ * Invocation of multi-input function with {@link Tuple2} of Publishers as its input.
+ *
+ * @author Oleg Zhurakousky
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@State(Scope.Benchmark)
+public class TupleFunctionBenchmarks {
+
+	private FunctionInvocationWrapper function;
+
+	private List<String> strings;
+
+	private List<Integer> integers;
+
+	@Setup
+	public void setup() {
+		SimpleFunctionRegistry functionRegistry = BenchmarkSupport.functionRegistry();
+		Function<Tuple2<Flux<String>, Flux<Integer>>, Flux<String>> multiInput = tuple ->
+				Flux.zip(tuple.getT1(), tuple.getT2()).map(pair -> pair.getT1() + "-" + pair.getT2());
+		ResolvableType functionType = ResolvableType.forClassWithGenerics(Function.class,
+				ResolvableType.forClassWithGenerics(Tuple2.class,
+						ResolvableType.forClassWithGenerics(Flux.class, String.class),
+						ResolvableType.forClassWithGenerics(Flux.class, Integer.class)),
+				ResolvableType.forClassWithGenerics(Flux.class, String.class));
+		functionRegistry.register(new FunctionRegistration<>(multiInput, "multiInput").type(functionType.getType()));
+		this.function = functionRegistry.lookup("multiInput");
+
+		this.strings = new ArrayList<>(FunctionInvocationBenchmarks.FLUX_SIZE);
+		this.integers = new ArrayList<>(FunctionInvocationBenchmarks.FLUX_SIZE);
+		for (int i = 0; i < FunctionInvocationBenchmarks.FLUX_SIZE; i++) {
+			this.strings.add("hello" + i);
+			this.integers.add(i);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Benchmark
+	public Object multiInput() {
+		return ((Flux<Object>) this.function.apply(Tuples.of(Flux.fromIterable(this.strings),
+				Flux.fromIterable(this.integers)))).blockLast();
+	}
+
+}
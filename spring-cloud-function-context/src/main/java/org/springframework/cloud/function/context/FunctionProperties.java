@@ -16,6 +16,12 @@
 
 package org.springframework.cloud.function.context;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import reactor.util.concurrent.Queues;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -42,6 +48,12 @@ public class FunctionProperties {
 	 */
 	public final static String EXPECT_CONTENT_TYPE_HEADER = "expected-content-type";
 
+	/**
+	 * Name of the header of the batch message (see {@link FunctionConfigurationProperties#getBatchSize()})
+	 * which carries the list of headers of individual elements of the batch.
+	 */
+	public final static String BATCH_HEADERS = "batch-headers";
+
 	/**
 	 * The name of function definition property.
 	 */
@@ -62,6 +74,12 @@ public class FunctionProperties {
 	 */
 	private String routingExpression;
 
+	/**
+	 * Configuration of individual functions keyed by function definition
+	 * (e.g., 'spring.cloud.function.configuration.uppercase.execution=bounded-elastic').
+	 */
+	private Map<String, FunctionConfigurationProperties> configuration = new HashMap<>();
+
 	public String getDefinition() {
 		return definition;
 	}
@@ -85,4 +103,131 @@ public class FunctionProperties {
 	public void setExpectedContentType(String expectedContentType) {
 		this.expectedContentType = expectedContentType;
 	}
+
+	public Map<String, FunctionConfigurationProperties> getConfiguration() {
+		return this.configuration;
+	}
+
+	public void setConfiguration(Map<String, FunctionConfigurationProperties> configuration) {
+		this.configuration = configuration;
+	}
+
+	/**
+	 * Configuration of the individual function.
+	 *
+	 * @since 3.1
+	 */
+	public static class FunctionConfigurationProperties {
+
+		/**
+		 * Where imperative function is invoked when its input is a Publisher (e.g., Flux).
+		 */
+		private ExecutionMode execution = ExecutionMode.EVENT_LOOP;
+
+		/**
+		 * Number of elements of Publisher input imperative function is invoked with concurrently.
+		 * Values greater than 1 enable parallel execution, in which case the order of
+		 * elements is not preserved (unless 'ordered-by' is set).
+		 */
+		private int concurrency = 1;
+
+		/**
+		 * Number of elements requested upfront by each of the parallel rails.
+		 */
+		private int prefetch = Queues.SMALL_BUFFER_SIZE;
+
+		/**
+		 * Name of the message header whose value defines the order key. With parallel execution,
+		 * elements with the same key are processed sequentially and in order (elements which are not
+		 * Messages or have no such header share the same key).
+		 */
+		private String orderedBy;
+
+		/**
+		 * Maximum number of elements of Publisher input grouped into a single batch for a function
+		 * which accepts a List (or a Message of List). Values greater than 0 enable batching.
+		 */
+		private int batchSize;
+
+		/**
+		 * Maximum time to wait for the batch to fill up before it is given to the function.
+		 */
+		private Duration batchTimeout = Duration.ofMillis(100);
+
+		public ExecutionMode getExecution() {
+			return this.execution;
+		}
+
+		public void setExecution(ExecutionMode execution) {
+			this.execution = execution;
+		}
+
+		public int getConcurrency() {
+			return this.concurrency;
+		}
+
+		public void setConcurrency(int concurrency) {
+			this.concurrency = concurrency;
+		}
+
+		public int getPrefetch() {
+			return this.prefetch;
+		}
+
+		public void setPrefetch(int prefetch) {
+			this.prefetch = prefetch;
+		}
+
+		public String getOrderedBy() {
+			return this.orderedBy;
+		}
+
+		public void setOrderedBy(String orderedBy) {
+			this.orderedBy = orderedBy;
+		}
+
+		public int getBatchSize() {
+			return this.batchSize;
+		}
+
+		public void setBatchSize(int batchSize) {
+			this.batchSize = batchSize;
+		}
+
+		public Duration getBatchTimeout() {
+			return this.batchTimeout;
+		}
+
+		public void setBatchTimeout(Duration batchTimeout) {
+			this.batchTimeout = batchTimeout;
+		}
+	}
+
+	/**
+	 * Defines where imperative function (i.e., function which itself does not accept
+	 * a Publisher) is invoked when its input is a Publisher.
+	 *
+	 * @since 3.1
+	 */
+	public enum ExecutionMode {
+
+		/**
+		 * Invoke the function on the thread which emitted the element
+		 * (e.g., Netty event loop). Suitable for non-blocking functions.
+		 */
+		EVENT_LOOP,
+
+		/**
+		 * Invoke the function on {@link reactor.core.scheduler.Schedulers#boundedElastic()}.
+		 * Suitable for blocking functions (e.g., JDBC or file I/O).
+		 */
+		BOUNDED_ELASTIC,
+
+		/**
+		 * Invoke the function on virtual threads if supported by the JDK, otherwise
+		 * same as {@link #BOUNDED_ELASTIC}.
+		 */
+		VIRTUAL_THREADS
+
+	}
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.function.context.catalog;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Result of {@link SimpleFunctionRegistry.FunctionInvocationWrapper#applyBatch(List, int)}.
+ * Holds the result (or the error) of the invocation for each input of the batch at the
+ * same index as the input.
+ *
+ * @author Oleg Zhurakousky
+ * @since 3.1
+ */
+public final class BatchInvocationResult {
+
+	private final Object[] results;
+
+	private final Throwable[] errors;
+
+	private final boolean hasErrors;
+
+	BatchInvocationResult(Object[] results, Throwable[] errors) {
+		this.results = results;
+		this.errors = errors;
+		boolean hasErrors = false;
+		for (int i = 0; i < errors.length && !hasErrors; i++) {
+			hasErrors = errors[i] != null;
+		}
+		this.hasErrors = hasErrors;
+	}
+
+	/**
+	 * @return number of inputs in the batch
+	 */
+	public int size() {
+		return this.results.length;
+	}
+
+	/**
+	 * @param index index of the input in the batch
+	 * @return result of the invocation (null if invocation failed or function is a consumer)
+	 */
+	@Nullable
+	public Object getResult(int index) {
+		return this.results[index];
+	}
+
+	/**
+	 * @param index index of the input in the batch
+	 * @return error which resulted from the invocation or null if invocation was successful
+	 */
+	@Nullable
+	public Throwable getError(int index) {
+		return this.errors[index];
+	}
+
+	/**
+	 * @param index index of the input in the batch
+	 * @return true if invocation for the input at the provided index was successful
+	 */
+	public boolean isSuccess(int index) {
+		return this.errors[index] == null;
+	}
+
+	/**
+	 * @return true if invocation failed for at least one of the inputs
+	 */
+	public boolean hasErrors() {
+		return this.hasErrors;
+	}
+
+	/**
+	 * @return unmodifiable list of results in the order of inputs (with null values for
+	 * failed invocations)
+	 */
+	public List<Object> getResults() {
+		return Collections.unmodifiableList(Arrays.asList(this.results));
+	}
+
+	@Override
+	public String toString() {
+		return "BatchInvocationResult[results=" + Arrays.toString(this.results)
+				+ ", errors=" + Arrays.toString(this.errors) + "]";
+	}
+
+}
@@ -16,18 +16,18 @@
 
 package org.springframework.cloud.function.context.catalog;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
-import org.aopalliance.intercept.MethodInterceptor;
-import org.aopalliance.intercept.MethodInvocation;
-
-import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
@@ -40,6 +40,7 @@ import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -78,7 +79,7 @@ public class BeanFactoryAwareFunctionRegistry extends SimpleFunctionRegistry imp
 	 */
 	@Override
 	public Set<String> getNames(Class<?> type) {
-		Set<String> registeredNames = super.getNames(type);
+		Set<String> registeredNames = new HashSet<>(super.getNames(type));
 		if (type == null) {
 			registeredNames
 				.addAll(Arrays.asList(this.applicationContext.getBeanNamesForType(Function.class)));
@@ -124,8 +125,13 @@ public class BeanFactoryAwareFunctionRegistry extends SimpleFunctionRegistry imp
 						}
 						else if (this.isFunctionPojo(functionCandidate, functionName)) {
 							Method functionalMethod = FunctionTypeUtils.discoverFunctionalMethod(functionCandidate.getClass());
-							functionCandidate = this.proxyTarget(functionCandidate, functionalMethod);
+							if (functionalMethod.getParameterCount() > 1) {
+								logger.info("Skipping function '" + functionName + "' since its functional method "
+										+ functionalMethod + " has more than one parameter");
+								continue;
+							}
 							functionType = FunctionTypeUtils.fromFunctionMethod(functionalMethod);
+							functionCandidate = this.createInvoker(functionCandidate, functionalMethod);
 						}
 						else if (this.isSpecialFunctionRegistration(functionNames, functionName)) {
 							functionRegistration = this.applicationContext
@@ -138,7 +144,8 @@ public class BeanFactoryAwareFunctionRegistry extends SimpleFunctionRegistry imp
 							functionRegistration = new FunctionRegistration(functionCandidate, functionName).type(functionType);
 						}
 
-						this.register(functionRegistration);
+						// no event, since nothing could have been cached for a function which was not yet registered
+						super.register(functionRegistration);
 					}
 					else {
 						if (logger.isDebugEnabled()) {
@@ -169,6 +176,22 @@ public class BeanFactoryAwareFunctionRegistry extends SimpleFunctionRegistry imp
 		return functionCandidate;
 	}
 
+	/*
+	 * In addition to registering the function, publishes FunctionRegistrationEvent so
+	 * interested parties (e.g., RoutingFunction) can invalidate what they may have cached.
+	 * Functions discovered in BeanFactory during lookup are registered without the event.
+	 */
+	@Override
+	public <T> void register(FunctionRegistration<T> registration) {
+		super.register(registration);
+		if (this.applicationContext != null && this.applicationContext.isActive()) {
+			Object target = registration.getTarget();
+			Class<?> type = target instanceof Supplier ? Supplier.class
+					: (target instanceof Consumer ? Consumer.class : Function.class);
+			this.applicationContext.publishEvent(new FunctionRegistrationEvent(target, type, registration.getNames()));
+		}
+	}
+
 	@Override
 	protected boolean containsFunction(String functionName) {
 		return super.containsFunction(functionName) ? true : this.applicationContext.containsBean(functionName);
@@ -198,16 +221,85 @@ public class BeanFactoryAwareFunctionRegistry extends SimpleFunctionRegistry imp
 		return this.applicationContext.containsBean(functionName + FunctionRegistration.REGISTRATION_NAME_SUFFIX);
 	}
 
-	private Object proxyTarget(Object targetFunction, Method actualMethodToCall) {
-		ProxyFactory pf = new ProxyFactory(targetFunction);
-		pf.setProxyTargetClass(true);
-		pf.setInterfaces(Function.class);
-		pf.addAdvice(new MethodInterceptor() {
-			@Override
-			public Object invoke(MethodInvocation invocation) throws Throwable {
-				return actualMethodToCall.invoke(invocation.getThis(), invocation.getArguments());
+	/*
+	 * Instead of proxying the POJO (which would go through the interceptor chain and
+	 * reflection on each call), binds the functional method to the target once, so the
+	 * invocation is a plain interface call followed by a direct method handle call.
+	 * Any exception (including checked one) thrown by the POJO is propagated as is.
+	 */
+	private Object createInvoker(Object targetFunction, Method actualMethodToCall) {
+		ReflectionUtils.makeAccessible(actualMethodToCall);
+		MethodHandle methodHandle;
+		try {
+			methodHandle = MethodHandles.lookup().unreflect(actualMethodToCall).bindTo(targetFunction);
+		}
+		catch (IllegalAccessException e) {
+			throw new IllegalStateException("Failed to access functional method: " + actualMethodToCall, e);
+		}
+		return actualMethodToCall.getParameterCount() == 0
+				? new PojoSupplierInvoker(methodHandle.asType(MethodType.methodType(Object.class)), actualMethodToCall)
+				: new PojoFunctionInvoker(methodHandle.asType(MethodType.methodType(Object.class, Object.class)), actualMethodToCall);
+	}
+
+	/*
+	 * Rethrows the exception without wrapping it, even if it is checked.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <E extends Throwable> RuntimeException sneakyThrow(Throwable e) throws E {
+		throw (E) e;
+	}
+
+	private static final class PojoFunctionInvoker implements Function<Object, Object> {
+
+		private final MethodHandle methodHandle;
+
+		private final Method method;
+
+		PojoFunctionInvoker(MethodHandle methodHandle, Method method) {
+			this.methodHandle = methodHandle;
+			this.method = method;
+		}
+
+		@Override
+		public Object apply(Object input) {
+			try {
+				return (Object) this.methodHandle.invokeExact(input);
+			}
+			catch (Throwable e) {
+				throw sneakyThrow(e);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return this.method.toString();
+		}
+	}
+
+	private static final class PojoSupplierInvoker implements Supplier<Object> {
+
+		private final MethodHandle methodHandle;
+
+		private final Method method;
+
+		PojoSupplierInvoker(MethodHandle methodHandle, Method method) {
+			this.methodHandle = methodHandle;
+			this.method = method;
+		}
+
+		@Override
+		public Object get() {
+			try {
+				return (Object) this.methodHandle.invokeExact();
+			}
+			catch (Throwable e) {
+				throw sneakyThrow(e);
 			}
-		});
-		return pf.getProxy();
+		}
+
+		@Override
+		public String toString() {
+			return this.method.toString();
+		}
 	}
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.function.context.catalog;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.cloud.function.context.FunctionProperties.ExecutionMode;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Resolves {@link Scheduler} for the {@link ExecutionMode} of a function.
+ * Virtual threads are obtained reflectively (JDK 21+), so this class compiles
+ * and runs on earlier JDKs as well, where it falls back to
+ * {@link Schedulers#boundedElastic()}.
+ *
+ * @author Oleg Zhurakousky
+ * @since 3.1
+ */
+public final class ExecutionSchedulers {
+
+	private static Log logger = LogFactory.getLog(ExecutionSchedulers.class);
+
+	private ExecutionSchedulers() {
+	}
+
+	/**
+	 * Returns the scheduler for the provided execution mode or null if invocation
+	 * should not be moved to another thread.
+	 */
+	@Nullable
+	static Scheduler forExecutionMode(@Nullable ExecutionMode executionMode) {
+		if (executionMode == null || executionMode == ExecutionMode.EVENT_LOOP) {
+			return null;
+		}
+		if (executionMode == ExecutionMode.VIRTUAL_THREADS && VirtualThreadSchedulerHolder.SCHEDULER != null) {
+			return VirtualThreadSchedulerHolder.SCHEDULER;
+		}
+		return Schedulers.boundedElastic();
+	}
+
+	/**
+	 * Returns the executor which runs each task on a new virtual thread (the same one
+	 * backing the scheduler of {@link ExecutionMode#VIRTUAL_THREADS}).
+	 * @return the executor or null if virtual threads are not supported by the JDK
+	 */
+	@Nullable
+	public static Executor virtualThreadExecutor() {
+		return VirtualThreadSchedulerHolder.EXECUTOR_SERVICE;
+	}
+
+	/*
+	 * Lazily (on first use) creates the single executor (and scheduler) backed by virtual threads.
+	 * Virtual threads are daemon threads, so the executor does not need to be shut down.
+	 */
+	private static final class VirtualThreadSchedulerHolder {
+
+		private static final ExecutorService EXECUTOR_SERVICE = createVirtualThreadExecutorService();
+
+		private static final Scheduler SCHEDULER = EXECUTOR_SERVICE == null ? null
+				: Schedulers.fromExecutorService(EXECUTOR_SERVICE, "function-virtual-threads");
+
+		private static ExecutorService createVirtualThreadExecutorService() {
+			Method factoryMethod = ReflectionUtils.findMethod(Executors.class, "newVirtualThreadPerTaskExecutor");
+			if (factoryMethod == null) {
+				logger.warn("Virtual threads are not supported by this JDK ("
+						+ System.getProperty("java.version") + "), using platform threads instead.");
+				return null;
+			}
+			try {
+				return (ExecutorService) factoryMethod.invoke(null);
+			}
+			catch (Exception e) {
+				logger.warn("Failed to create virtual thread executor, using platform threads instead.", e);
+				return null;
+			}
+		}
+	}
+
+}
@@ -22,6 +22,11 @@ import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry
 import org.springframework.messaging.Message;
 
 /**
+ * Strategy to wrap (e.g., instrument) each invocation of a function managed by
+ * {@link SimpleFunctionRegistry} (see {@link SimpleFunctionRegistry#setFunctionAroundWrapper(FunctionAroundWrapper)}).
+ * <br><br>
+ * The target function provided to this wrapper invokes the actual function directly,
+ * so it is safe to call {@link FunctionInvocationWrapper#apply(Object)} on it.
  *
  * @author Oleg Zhurakousky
  * @since 3.1
@@ -34,8 +39,46 @@ public abstract class FunctionAroundWrapper implements BiFunction<Object, Functi
 		if (input instanceof Message) {
 			return this.doApply((Message<byte[]>) input, targetFunction);
 		}
-		return targetFunction.apply(input);
+		return this.doApplyPayload(input, targetFunction);
 	}
 
 	protected abstract Object doApply(Message<byte[]> input, FunctionInvocationWrapper targetFunction);
+
+	/**
+	 * Invoked when the input is not a {@link Message}. Invokes target function by default.
+	 * @param input input (can be null, e.g., for suppliers)
+	 * @param targetFunction target function
+	 * @return result of the invocation
+	 */
+	protected Object doApplyPayload(Object input, FunctionInvocationWrapper targetFunction) {
+		return targetFunction.apply(input);
+	}
+
+	/**
+	 * Callback invoked after conversion of input (or individual element of Publisher input)
+	 * of the function. Does nothing by default.
+	 * @param targetFunction target function
+	 * @param nanos time it took to convert the input
+	 */
+	protected void onInputConversion(FunctionInvocationWrapper targetFunction, long nanos) {
+	}
+
+	/**
+	 * Callback invoked after conversion of output (or individual element of Publisher output)
+	 * of the function. Does nothing by default.
+	 * @param targetFunction target function
+	 * @param nanos time it took to convert the output
+	 */
+	protected void onOutputConversion(FunctionInvocationWrapper targetFunction, long nanos) {
+	}
+
+	/**
+	 * Callback invoked when an element of Publisher input is picked up by the scheduler
+	 * the function is invoked on (see {@link org.springframework.cloud.function.context.FunctionProperties.ExecutionMode}).
+	 * Does nothing by default.
+	 * @param targetFunction target function
+	 * @param nanos time the element waited for the scheduler
+	 */
+	protected void onExecutionScheduled(FunctionInvocationWrapper targetFunction, long nanos) {
+	}
 }
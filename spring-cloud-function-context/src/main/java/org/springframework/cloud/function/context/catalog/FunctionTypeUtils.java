@@ -23,6 +23,7 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -45,10 +46,21 @@ import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.core.ResolvableType;
 import org.springframework.messaging.Message;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
 import org.springframework.util.ReflectionUtils;
 
 /**
  * Set of utility operations to interrogate function definitions.
+ * <br><br>
+ * Results of the most frequently used operations which are pure functions of the
+ * provided {@link Type} (e.g., {@link #getRawType(Type)}, {@link #getGenericType(Type)},
+ * {@link #isMessage(Type)}, {@link #isPublisher(Type)}) are memoized in caches with
+ * soft references (the caches reference entire entries, so weak references would empty
+ * them on every GC). Since entries are only released under memory pressure,
+ * {@link #clearCache()} should be called once the classes of interrogated types are no
+ * longer used (e.g., when a function archive is undeployed). Types loaded by different
+ * class loaders are never equal, so they do not share entries.
  *
  * @author Oleg Zhurakousky
  * @author Andrey Shlykov
@@ -59,6 +71,24 @@ public final class FunctionTypeUtils {
 
 	private static  Log logger = LogFactory.getLog(FunctionTypeUtils.class);
 
+	/*
+	 * Marks memoized null results, since ConcurrentReferenceHashMap.get(..) does not
+	 * distinguish between a missing entry and null value.
+	 */
+	private static final Object NULL_VALUE = new Object();
+
+	private static final Map<Type, Object> rawTypeCache = new ConcurrentReferenceHashMap<>(16, ReferenceType.SOFT);
+
+	private static final Map<Type, Object> genericTypeCache = new ConcurrentReferenceHashMap<>(16, ReferenceType.SOFT);
+
+	private static final Map<Type, Object> messageTypeCache = new ConcurrentReferenceHashMap<>(16, ReferenceType.SOFT);
+
+	private static final Map<Type, Object> monoTypeCache = new ConcurrentReferenceHashMap<>(16, ReferenceType.SOFT);
+
+	private static final Map<Type, Object> multipleArgumentTypeCache = new ConcurrentReferenceHashMap<>(16, ReferenceType.SOFT);
+
+	private static final Map<Type, Object> functionTypeFromClassCache = new ConcurrentReferenceHashMap<>(16, ReferenceType.SOFT);
+
 	private FunctionTypeUtils() {
 
 	}
@@ -86,6 +116,27 @@ public final class FunctionTypeUtils {
 	 * @return generic type if possible otherwise the same type as provided
 	 */
 	public static Type getGenericType(Type type) {
+		return type != null ? memoize(genericTypeCache, type, FunctionTypeUtils::doGetGenericType) : null;
+	}
+
+	public static Class<?> getRawType(Type type) {
+		return type != null ? memoize(rawTypeCache, type, t -> TypeResolver.resolveRawClass(t, null)) : null;
+	}
+
+	/**
+	 * Clears memoized results of type interrogation. Useful when the classes of previously
+	 * interrogated types are no longer used (e.g., their class loader is closed).
+	 */
+	public static void clearCache() {
+		rawTypeCache.clear();
+		genericTypeCache.clear();
+		messageTypeCache.clear();
+		monoTypeCache.clear();
+		multipleArgumentTypeCache.clear();
+		functionTypeFromClassCache.clear();
+	}
+
+	private static Type doGetGenericType(Type type) {
 		if (isPublisher(type) || isMessage(type)) {
 			type = getImmediateGenericType(type, 0);
 		}
@@ -95,10 +146,6 @@ public final class FunctionTypeUtils {
 		return type;
 	}
 
-	public static Class<?> getRawType(Type type) {
-		return type != null ? TypeResolver.resolveRawClass(type, null) : null;
-	}
-
 	/**
 	 * Will attempt to discover functional methods on the class. It's applicable for POJOs as well as
 	 * functional classes in `java.util.function` package. For the later the names of the methods are
@@ -138,8 +185,12 @@ public final class FunctionTypeUtils {
 		return methods.get(0);
 	}
 
-	@SuppressWarnings("unchecked")
 	public static Type discoverFunctionTypeFromClass(Class<?> functionalClass) {
+		return memoize(functionTypeFromClassCache, functionalClass, type -> doDiscoverFunctionTypeFromClass(functionalClass));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Type doDiscoverFunctionTypeFromClass(Class<?> functionalClass) {
 		Assert.isTrue(isFunctional(functionalClass), "Type must be one of Supplier, Function or Consumer");
 
 		if (Function.class.isAssignableFrom(functionalClass)) {
@@ -288,10 +339,14 @@ public final class FunctionTypeUtils {
 	}
 
 	public static boolean isFlux(Type type) {
-		return TypeResolver.resolveRawClass(type, null) == Flux.class;
+		return getRawType(type) == Flux.class;
 	}
 
 	public static boolean isMessage(Type type) {
+		return type != null && memoize(messageTypeCache, type, FunctionTypeUtils::doIsMessage);
+	}
+
+	private static boolean doIsMessage(Type type) {
 		if (isPublisher(type)) {
 			type = getImmediateGenericType(type, 0);
 		}
@@ -324,11 +379,19 @@ public final class FunctionTypeUtils {
 	}
 
 	public static boolean isMono(Type type) {
+		return type != null && memoize(monoTypeCache, type, FunctionTypeUtils::doIsMono);
+	}
+
+	private static boolean doIsMono(Type type) {
 		type = extractReactiveType(type);
 		return type == null ? false : type.getTypeName().startsWith("reactor.core.publisher.Mono");
 	}
 
 	public static boolean isMultipleArgumentType(Type type) {
+		return type != null && memoize(multipleArgumentTypeCache, type, FunctionTypeUtils::doIsMultipleArgumentType);
+	}
+
+	private static boolean doIsMultipleArgumentType(Type type) {
 		if (type != null) {
 			if (TypeResolver.resolveRawClass(type, null).isArray()) {
 				return false;
@@ -365,6 +428,16 @@ public final class FunctionTypeUtils {
 		return functionType;
 	}
 
+	@SuppressWarnings("unchecked")
+	private static <T> T memoize(Map<Type, Object> cache, Type type, Function<Type, T> resolver) {
+		Object value = cache.get(type);
+		if (value == null) {
+			value = resolver.apply(type);
+			cache.put(type, value == null ? NULL_VALUE : value);
+		}
+		return value == NULL_VALUE ? null : (T) value;
+	}
+
 	private static boolean isMulti(Type type) {
 		return type.getTypeName().startsWith("reactor.util.function.Tuple");
 	}
@@ -21,10 +21,11 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +33,8 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -43,24 +46,30 @@ import org.apache.commons.logging.LogFactory;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.ParallelFlux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+import reactor.util.function.Tuple2;
 import reactor.util.function.Tuples;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.cloud.function.context.FunctionCatalog;
 import org.springframework.cloud.function.context.FunctionProperties;
+import org.springframework.cloud.function.context.FunctionProperties.FunctionConfigurationProperties;
 import org.springframework.cloud.function.context.FunctionRegistration;
 import org.springframework.cloud.function.context.FunctionRegistry;
 import org.springframework.cloud.function.context.config.RoutingFunction;
+import org.springframework.cloud.function.context.message.LazyMessageHeaders;
 import org.springframework.cloud.function.json.JsonMapper;
+import org.springframework.context.ApplicationListener;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.convert.ConversionService;
-import org.springframework.expression.Expression;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.converter.CompositeMessageConverter;
-import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.GenericMessage;
 import org.springframework.util.Assert;
 import org.springframework.util.MimeType;
 import org.springframework.util.ObjectUtils;
@@ -73,11 +82,29 @@ import org.springframework.util.StringUtils;
  * does not depend on Spring's {@link BeanFactory}.
  * Each function must be registered with it explicitly to benefit from features
  * such as type conversion, composition, POJO etc.
+ * <br><br>
+ * Registrations are indexed by each of their names (aliases) and the set of
+ * registered names is kept as an immutable snapshot which is replaced on each
+ * registration, so lookups never block and never iterate over all registrations.
+ * Cached (composed) function wrappers are evicted when a function with one of
+ * the participating names is registered or when a {@link FunctionRegistrationEvent}
+ * or {@link FunctionUnregistrationEvent} is received.
  *
  * @author Oleg Zhurakousky
  *
  */
-public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspector {
+public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspector, ApplicationListener<FunctionCatalogEvent> {
+	/*
+	 * Upper bound on the number of cached content-type specific views per function,
+	 * since expected content types may come from external sources (e.g., 'Accept' header).
+	 */
+	private static final int MAX_EXPECTED_OUTPUT_CONTENT_TYPE_VIEWS = 64;
+
+	/*
+	 * Signals that batch timeout elapsed (see FunctionInvocationWrapper.doApplyInBatches(..)).
+	 */
+	private static final Object BATCH_TIMEOUT = new Object();
+
 	protected Log logger = LogFactory.getLog(this.getClass());
 	/*
 	 * - do we care about FunctionRegistration after it's been registered? What additional value does it bring?
@@ -86,9 +113,17 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 
 	private final Field headersField;
 
-	private final Set<FunctionRegistration<?>> functionRegistrations = new HashSet<>();
+	private final Set<FunctionRegistration<?>> functionRegistrations = ConcurrentHashMap.newKeySet();
+
+	private final Map<String, FunctionRegistration<?>> functionRegistrationsByName = new ConcurrentHashMap<>();
 
-	private final Map<String, FunctionInvocationWrapper> wrappedFunctionDefinitions = new HashMap<>();
+	private final Map<String, FunctionInvocationWrapper> wrappedFunctionDefinitions = new ConcurrentHashMap<>();
+
+	/*
+	 * Copy-on-write snapshot of all registered names. Only replaced while holding
+	 * the monitor of 'functionRegistrations'.
+	 */
+	private volatile Set<String> functionNames = Collections.emptySet();
 
 	private final ConversionService conversionService;
 
@@ -96,6 +131,16 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 
 	private final JsonMapper jsonMapper;
 
+	/*
+	 * Optional. When null (default) invocations are not wrapped.
+	 */
+	private volatile FunctionAroundWrapper functionAroundWrapper;
+
+	/*
+	 * Optional. Provides configuration of individual functions (e.g., execution mode).
+	 */
+	private volatile FunctionProperties functionProperties;
+
 	public SimpleFunctionRegistry(ConversionService conversionService, CompositeMessageConverter messageConverter, JsonMapper jsonMapper) {
 		Assert.notNull(messageConverter, "'messageConverter' must not be null");
 		Assert.notNull(jsonMapper, "'jsonMapper' must not be null");
@@ -106,6 +151,28 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 		this.headersField.setAccessible(true);
 	}
 
+	/**
+	 * Sets {@link FunctionAroundWrapper} which will wrap every invocation of functions
+	 * looked up from this registry (e.g., to instrument them).
+	 * @param functionAroundWrapper instance of {@link FunctionAroundWrapper} or null to disable
+	 * @since 3.1
+	 */
+	public void setFunctionAroundWrapper(@Nullable FunctionAroundWrapper functionAroundWrapper) {
+		this.functionAroundWrapper = functionAroundWrapper;
+	}
+
+	/**
+	 * Sets {@link FunctionProperties} which provide configuration of individual functions
+	 * (see {@link FunctionProperties#getConfiguration()}). Only affects functions looked up
+	 * after this call.
+	 * @param functionProperties function properties or null
+	 * @since 3.1
+	 */
+	public void setFunctionProperties(@Nullable FunctionProperties functionProperties) {
+		this.functionProperties = functionProperties;
+		this.wrappedFunctionDefinitions.clear();
+	}
+
 	@Override
 	public FunctionRegistration<?> getRegistration(Object function) {
 		throw new UnsupportedOperationException("FunctionInspector is deprecated. There is no need "
@@ -131,14 +198,37 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 
 	@Override
 	public <T> void register(FunctionRegistration<T> registration) {
-		this.functionRegistrations.add(registration);
+		Assert.notNull(registration, "'registration' must not be null");
+		synchronized (this.functionRegistrations) {
+			this.functionRegistrations.add(registration);
+			Set<String> names = new HashSet<>(this.functionNames);
+			for (String name : registration.getNames()) {
+				this.functionRegistrationsByName.put(name, registration);
+				names.add(name);
+			}
+			this.functionNames = Collections.unmodifiableSet(names);
+		}
+		this.evictWrappedFunctionDefinitions(registration.getNames());
+	}
+
+	@Override
+	public void onApplicationEvent(FunctionCatalogEvent event) {
+		if (event instanceof FunctionRegistrationEvent) {
+			this.evictWrappedFunctionDefinitions(((FunctionRegistrationEvent) event).getNames());
+		}
+		else if (event instanceof FunctionUnregistrationEvent) {
+			this.evictWrappedFunctionDefinitions(((FunctionUnregistrationEvent) event).getNames());
+		}
 	}
 
 	//-----
 
+	/**
+	 * Returns an immutable snapshot of the names of all registered functions.
+	 */
 	@Override
 	public Set<String> getNames(Class<?> type) {
-		return this.functionRegistrations.stream().flatMap(fr -> fr.getNames().stream()).collect(Collectors.toSet());
+		return this.functionNames;
 	}
 
 	@Override
@@ -150,7 +240,23 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 	 *
 	 */
 	protected boolean containsFunction(String functionName) {
-		return this.functionRegistrations.stream().anyMatch(reg -> reg.getNames().contains(functionName));
+		return this.functionRegistrationsByName.containsKey(functionName);
+	}
+
+	/*
+	 * Removes cached wrappers for every definition which references any of the provided names.
+	 */
+	private void evictWrappedFunctionDefinitions(Collection<String> names) {
+		if (!this.wrappedFunctionDefinitions.isEmpty()) {
+			this.wrappedFunctionDefinitions.keySet().removeIf(definition -> {
+				for (String name : StringUtils.delimitedListToStringArray(definition, "|")) {
+					if (names.contains(name)) {
+						return true;
+					}
+				}
+				return false;
+			});
+		}
 	}
 
 	/*
@@ -165,7 +271,7 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 		}
 
 		if (function != null) {
-			function.expectedOutputContentType = expectedOutputMimeTypes;
+			function = function.withExpectedOutputContentType(expectedOutputMimeTypes);
 		}
 		else {
 			logger.debug("Function '" + functionDefinition + "' is not found");
@@ -185,8 +291,9 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 				? functionDefinition.replaceAll(",", "|")
 				: System.getProperty(FunctionProperties.FUNCTION_DEFINITION, "");
 
-		if (!this.getNames(null).contains(functionDefinition)) {
-			List<String> eligibleFunction = this.getNames(null).stream()
+		Set<String> names = this.getNames(null);
+		if (!names.contains(functionDefinition)) {
+			List<String> eligibleFunction = names.stream()
 					.filter(name -> !RoutingFunction.FUNCTION_NAME.equals(name))
 					.collect(Collectors.toList());
 			if (eligibleFunction.size() == 1
@@ -202,10 +309,7 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 	 *
 	 */
 	private FunctionInvocationWrapper findFunctionInFunctionRegistrations(String functionName) {
-		FunctionRegistration<?> functionRegistration = this.functionRegistrations.stream()
-				.filter(fr -> fr.getNames().contains(functionName))
-				.findFirst()
-				.orElseGet(() -> null);
+		FunctionRegistration<?> functionRegistration = this.functionRegistrationsByName.get(functionName);
 		return functionRegistration != null
 				? this.invocationWrapperInstance(functionName, functionRegistration.getTarget(), functionRegistration.getType().getType())
 				: null;
@@ -271,9 +375,64 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 
 		private boolean composed;
 
-		private boolean message;
+		private final InvocationPlan inputPlan;
+
+		private final InvocationPlan outputPlan;
+
+		/*
+		 * Whether input message headers should be propagated to the result of the invocation.
+		 */
+		private final boolean propagateInputHeaders;
+
+		private final String[] expectedOutputContentType;
+
+		/*
+		 * Immutable views of this wrapper keyed by expected output content types.
+		 * Shared between the original wrapper and all of its views.
+		 */
+		private final Map<List<String>, FunctionInvocationWrapper> expectedOutputContentTypeViews;
+
+		/*
+		 * Wrapper this view was created from (this wrapper if it is not a view).
+		 */
+		private final FunctionInvocationWrapper original;
+
+		/*
+		 * Whether this is a view which is given to FunctionAroundWrapper as a target and
+		 * must therefore invoke the function directly.
+		 */
+		private final boolean aroundWrapperTarget;
 
-		private String[] expectedOutputContentType;
+		private FunctionInvocationWrapper aroundWrapperTargetView;
+
+		/*
+		 * Scheduler on which imperative function is invoked when its input is a Publisher
+		 * (see FunctionProperties.ExecutionMode). Null if invocation stays on the emitting thread.
+		 */
+		private final Scheduler executionScheduler;
+
+		/*
+		 * Number of elements of Publisher input imperative function is invoked with
+		 * concurrently (see FunctionConfigurationProperties). 1 if parallel execution is disabled.
+		 */
+		private final int concurrency;
+
+		private final int prefetch;
+
+		/*
+		 * Name of the header which defines the order key for parallel execution (optional).
+		 */
+		private final String orderedBy;
+
+		/*
+		 * Plan for individual elements of List input when elements of Publisher input are
+		 * grouped into batches (see FunctionConfigurationProperties). Null if batching is disabled.
+		 */
+		private final InvocationPlan batchElementPlan;
+
+		private final int batchSize;
+
+		private final Duration batchTimeout;
 
 		/*
 		 * This is primarily to support Stream's ability to access
@@ -289,7 +448,53 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 			this.inputType = this.normalizeType(inputType);
 			this.outputType = this.normalizeType(outputType);
 			this.functionDefinition = functionDefinition;
-			this.message = this.inputType != null && FunctionTypeUtils.isMessage(this.inputType);
+			this.inputPlan = new InvocationPlan(this.inputType);
+			this.outputPlan = new InvocationPlan(this.outputType);
+			this.propagateInputHeaders = !this.inputPlan.publisher && this.isFunction();
+			this.expectedOutputContentType = null;
+			this.expectedOutputContentTypeViews = new ConcurrentHashMap<>();
+			this.original = this;
+			this.aroundWrapperTarget = false;
+			FunctionConfigurationProperties configuration = this.resolveConfiguration();
+			this.executionScheduler = configuration == null ? null
+					: ExecutionSchedulers.forExecutionMode(configuration.getExecution());
+			this.concurrency = configuration == null ? 1 : Math.max(configuration.getConcurrency(), 1);
+			this.prefetch = configuration == null ? Queues.SMALL_BUFFER_SIZE : configuration.getPrefetch();
+			this.orderedBy = configuration == null ? null : configuration.getOrderedBy();
+			this.batchSize = configuration == null ? 0 : configuration.getBatchSize();
+			this.batchTimeout = configuration == null ? null : configuration.getBatchTimeout();
+			this.batchElementPlan = this.batchSize > 0 ? this.resolveBatchElementPlan() : null;
+		}
+
+		/*
+		 * Copy constructor which creates a view of the provided wrapper. The view shares
+		 * everything with the wrapper (in the order of the fields above), except for the
+		 * expected output content types and whether it is the target of FunctionAroundWrapper.
+		 * Its own FunctionAroundWrapper target is created lazily.
+		 */
+		private FunctionInvocationWrapper(FunctionInvocationWrapper source, String[] expectedOutputContentType,
+				boolean aroundWrapperTarget) {
+			this.target = source.target;
+			this.inputType = source.inputType;
+			this.outputType = source.outputType;
+			this.functionDefinition = source.functionDefinition;
+			this.composed = source.composed;
+			this.inputPlan = source.inputPlan;
+			this.outputPlan = source.outputPlan;
+			this.propagateInputHeaders = source.propagateInputHeaders;
+			this.expectedOutputContentType = expectedOutputContentType;
+			this.expectedOutputContentTypeViews = source.expectedOutputContentTypeViews;
+			this.original = source.original;
+			this.aroundWrapperTarget = aroundWrapperTarget;
+			this.aroundWrapperTargetView = null;
+			this.executionScheduler = source.executionScheduler;
+			this.concurrency = source.concurrency;
+			this.prefetch = source.prefetch;
+			this.orderedBy = source.orderedBy;
+			this.batchElementPlan = source.batchElementPlan;
+			this.batchSize = source.batchSize;
+			this.batchTimeout = source.batchTimeout;
+			this.enhancer = source.enhancer;
 		}
 
 		public Object getTarget() {
@@ -327,11 +532,11 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 		}
 
 		public Class<?> getRawOutputType() {
-			return this.outputType == null ? null : TypeResolver.resolveRawClass(this.outputType, null);
+			return this.outputType == null ? null : this.outputPlan.rawType;
 		}
 
 		public Class<?> getRawInputType() {
-			return this.inputType == null ? null : TypeResolver.resolveRawClass(this.inputType, null);
+			return this.inputType == null ? null : this.inputPlan.rawType;
 		}
 
 		/**
@@ -339,16 +544,74 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 		 */
 		@Override
 		public Object apply(Object input) {
+			FunctionAroundWrapper aroundWrapper = SimpleFunctionRegistry.this.functionAroundWrapper;
+			if (aroundWrapper != null && !this.aroundWrapperTarget) {
+				return aroundWrapper.apply(input, this.getAroundWrapperTarget());
+			}
 
 			Object result = this.doApply(input);
 
 			if (result != null && this.outputType != null) {
-				result = this.convertOutputIfNecessary(result, this.outputType, this.expectedOutputContentType);
+				result = this.convertOutputAndRecord(result, this.outputPlan, this.expectedOutputContentType);
 			}
 
 			return result;
 		}
 
+		/**
+		 * Shortcut for {@code applyBatch(inputs, 1)}.
+		 * @param inputs batch of inputs
+		 * @return result of invocation for each input
+		 * @since 3.1
+		 */
+		public BatchInvocationResult applyBatch(List<?> inputs) {
+			return this.applyBatch(inputs, 1);
+		}
+
+		/**
+		 * Invokes this function (or consumer) with each of the provided inputs, collecting
+		 * the result or the error of each invocation. Unlike separate calls to {@link #apply(Object)},
+		 * failure of one invocation does not affect the rest of the batch.
+		 * <br><br>
+		 * If parallelism is greater than 1, inputs are processed concurrently on
+		 * {@link Schedulers#boundedElastic()} with at most that many inputs processed at a time,
+		 * otherwise inputs are processed sequentially on the calling thread. In both cases this method
+		 * returns once all inputs are processed.
+		 * <br><br>
+		 * Only supported for imperative functions and consumers (i.e., neither input nor output is
+		 * a {@link Publisher}).
+		 * @param inputs batch of inputs
+		 * @param parallelism maximum number of inputs processed concurrently
+		 * @return result of invocation for each input
+		 * @since 3.1
+		 */
+		public BatchInvocationResult applyBatch(List<?> inputs, int parallelism) {
+			Assert.notNull(inputs, "'inputs' must not be null");
+			Assert.isTrue(parallelism > 0, "'parallelism' must be greater than 0");
+			if (this.isSupplier() || this.inputPlan.publisher || this.outputPlan.publisher) {
+				throw new UnsupportedOperationException("Batch invocation is only supported for imperative functions "
+						+ "and consumers, while '" + this.functionDefinition + "' is not.");
+			}
+
+			Object[] values = inputs.toArray();
+			Object[] results = new Object[values.length];
+			Throwable[] errors = new Throwable[values.length];
+			if (parallelism == 1 || values.length < 2) {
+				for (int i = 0; i < values.length; i++) {
+					this.applyBatchElement(values, i, results, errors);
+				}
+			}
+			else {
+				Flux.range(0, values.length)
+					.parallel(Math.min(parallelism, values.length))
+					.runOn(Schedulers.boundedElastic())
+					.doOnNext(i -> this.applyBatchElement(values, i, results, errors))
+					.sequential()
+					.blockLast();
+			}
+			return new BatchInvocationResult(results, errors);
+		}
+
 		@Override
 		public Object get() {
 			return this.apply(null);
@@ -377,19 +640,19 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 		}
 
 		public boolean isInputTypePublisher() {
-			return this.isTypePublisher(this.inputType);
+			return this.inputPlan.publisher;
 		}
 
 		public boolean isOutputTypePublisher() {
-			return this.isTypePublisher(this.outputType);
+			return this.outputPlan.publisher;
 		}
 
 		public boolean isInputTypeMessage() {
-			return this.message || this.isRoutingFunction();
+			return this.inputPlan.message || this.isRoutingFunction();
 		}
 
 		public boolean isOutputTypeMessage() {
-			return FunctionTypeUtils.isMessage(this.outputType);
+			return this.outputPlan.message;
 		}
 
 
@@ -404,17 +667,18 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 		@Override
 		public <V> Function<Object, V> andThen(Function<? super Object, ? extends V> after) {
 			Assert.isTrue(after instanceof FunctionInvocationWrapper, "Composed function must be an instanceof FunctionInvocationWrapper.");
-			if (FunctionTypeUtils.isMultipleArgumentType(this.inputType)
-					|| FunctionTypeUtils.isMultipleArgumentType(this.outputType)
-					|| FunctionTypeUtils.isMultipleArgumentType(((FunctionInvocationWrapper) after).inputType)
-					|| FunctionTypeUtils.isMultipleArgumentType(((FunctionInvocationWrapper) after).outputType)) {
+			if (this.inputPlan.multipleArguments
+					|| this.outputPlan.multipleArguments
+					|| ((FunctionInvocationWrapper) after).inputPlan.multipleArguments
+					|| ((FunctionInvocationWrapper) after).outputPlan.multipleArguments) {
 				throw new UnsupportedOperationException("Composition of functions with multiple arguments is not supported at the moment");
 			}
 
-			Function rawComposedFunction = v -> ((FunctionInvocationWrapper) after).doApply(doApply(v));
-
 			FunctionInvocationWrapper afterWrapper = (FunctionInvocationWrapper) after;
 
+			String composedName = this.functionDefinition + "|" + afterWrapper.functionDefinition;
+			Function rawComposedFunction = this.planComposition(afterWrapper, composedName);
+
 			Type composedFunctionType;
 			if (afterWrapper.outputType == null) {
 				composedFunctionType = ResolvableType.forClassWithGenerics(Consumer.class, this.inputType == null
@@ -444,13 +708,92 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 						ResolvableType.forType(((FunctionInvocationWrapper) after).outputType)).getType();
 			}
 
-			String composedName = this.functionDefinition + "|" + afterWrapper.functionDefinition;
 			FunctionInvocationWrapper composedFunction = invocationWrapperInstance(composedName, rawComposedFunction, composedFunctionType);
 			composedFunction.composed = true;
 
 			return (Function<Object, V>) composedFunction;
 		}
 
+		/**
+		 * Returns an immutable view of this function which will convert its output using
+		 * the provided content types. Views are cached, so the same instance is returned
+		 * for the same content types, and this instance is never modified, which makes it
+		 * safe to look up the same function concurrently with different content types.
+		 * @param expectedOutputContentType expected output content types (can be null)
+		 * @return view of this function (or the function this view was created from if no
+		 * content types provided)
+		 */
+		FunctionInvocationWrapper withExpectedOutputContentType(String[] expectedOutputContentType) {
+			if (ObjectUtils.isEmpty(expectedOutputContentType)) {
+				return this.expectedOutputContentType == null ? this : this.original;
+			}
+			List<String> key = Arrays.asList(expectedOutputContentType.clone());
+			FunctionInvocationWrapper view = this.expectedOutputContentTypeViews.get(key);
+			if (view == null) {
+				view = new FunctionInvocationWrapper(this, key.toArray(new String[0]), false);
+				if (this.expectedOutputContentTypeViews.size() < MAX_EXPECTED_OUTPUT_CONTENT_TYPE_VIEWS) {
+					FunctionInvocationWrapper existingView = this.expectedOutputContentTypeViews.putIfAbsent(key, view);
+					view = existingView == null ? view : existingView;
+				}
+			}
+			return view;
+		}
+
+		/*
+		 * Analyses the types of this and the 'after' function and creates the function which
+		 * invokes both.
+		 * - If the output type of this function is exactly the input type of 'after' function,
+		 * input conversion (and Message re-wrapping) of the 'after' function is skipped.
+		 * - If both functions are imperative (neither input nor output is a Publisher),
+		 * Publisher input is mapped once with the entire composition applied per element,
+		 * instead of each stage adding its own conversion and invocation operators.
+		 */
+		@SuppressWarnings("unchecked")
+		private Function<Object, Object> planComposition(FunctionInvocationWrapper afterWrapper, String composedName) {
+			Function<Object, Object> composition = this.isConversionElidable(afterWrapper)
+					? v -> {
+						Object result = this.doApply(v);
+						return afterWrapper.inputPlan.rawType.isInstance(result) && !(result instanceof Message)
+								? afterWrapper.doInvoke(result)
+								: afterWrapper.doApply(result);
+					}
+					: v -> afterWrapper.doApply(this.doApply(v));
+
+			if (this.isFunction() && afterWrapper.isFunction()
+					&& !this.inputPlan.publisher && !this.outputPlan.publisher
+					&& !afterWrapper.inputPlan.publisher && !afterWrapper.outputPlan.publisher
+					&& !this.isRoutingFunction() && !afterWrapper.isRoutingFunction()) {
+				return v -> {
+					if (v instanceof Publisher) {
+						return v instanceof Mono
+								? Mono.from((Publisher) v).map(composition)
+									.doOnError(ex -> logger.error("Failed to invoke function '" + composedName + "'", (Throwable) ex))
+								: Flux.from((Publisher) v).map(composition)
+									.doOnError(ex -> logger.error("Failed to invoke function '" + composedName + "'", (Throwable) ex));
+					}
+					return composition.apply(v);
+				};
+			}
+			return composition;
+		}
+
+		/*
+		 * Conversion of the output of this function is not necessary if it is already
+		 * of the exact input type of the next function and that type is a plain type, since
+		 * Message (payload conversion and header propagation) and Publisher input always
+		 * require regular conversion. The result itself is still checked for each invocation
+		 * (see planComposition(..)), since it may not match the declared type (e.g., Message).
+		 */
+		private boolean isConversionElidable(FunctionInvocationWrapper afterWrapper) {
+			return this.outputType != null && afterWrapper.inputType != null
+					&& this.outputType.equals(afterWrapper.inputType)
+					&& afterWrapper.inputPlan.rawType != Void.class
+					&& !afterWrapper.inputPlan.message && !afterWrapper.inputPlan.publisher
+					&& !afterWrapper.inputPlan.multipleArguments
+					&& !this.outputPlan.message && !this.outputPlan.publisher
+					&& !this.isRoutingFunction() && !afterWrapper.isRoutingFunction();
+		}
+
 		/**
 		 * Returns the definition of this function.
 		 * @return function definition
@@ -475,13 +818,6 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 			return this.composed;
 		}
 
-		/*
-		 *
-		 */
-		private boolean isTypePublisher(Type type) {
-			return type != null && FunctionTypeUtils.isPublisher(type);
-		}
-
 		/**
 		 * Will return Object.class if type is represented as TypeVariable(T) or WildcardType(?).
 		 */
@@ -492,13 +828,6 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 			return type;
 		}
 
-		/*
-		 *
-		 */
-		private Class<?> getRawClassFor(@Nullable Type type) {
-			return type instanceof TypeVariable || type instanceof WildcardType ? Object.class : TypeResolver.resolveRawClass(type, null);
-		}
-
 		/**
 		 * Will wrap the result in a Message if necessary and will copy input headers to the output message.
 		 */
@@ -508,13 +837,17 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 			// wrap the result in a message regardless and copy all the headers from the incoming message.
 			// Used in SupplierExporter
 			if (input instanceof Message && ((Message) input).getHeaders().containsKey("scf-func-name")) {
-				if (result instanceof Message) {
+				if (result instanceof Message && ((Message) result).getHeaders() instanceof LazyMessageHeaders) {
+					result = new GenericMessage<>(((Message) result).getPayload(),
+							LazyMessageHeaders.of(((Message) result).getHeaders(), ((Message) input).getHeaders()));
+				}
+				else if (result instanceof Message) {
 					Map<String, Object> headersMap = (Map<String, Object>) ReflectionUtils
 							.getField(SimpleFunctionRegistry.this.headersField, ((Message) result).getHeaders());
 					headersMap.putAll(((Message) input).getHeaders());
 				}
 				else {
-					result = MessageBuilder.withPayload(result).copyHeaders(((Message) input).getHeaders()).build();
+					result = new GenericMessage<>(result, LazyMessageHeaders.of(((Message) input).getHeaders()));
 				}
 			}
 			return result;
@@ -524,10 +857,13 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 		 *
 		 */
 		private Object fluxifyInputIfNecessary(Object input) {
-			if (!(input instanceof Publisher) && this.isTypePublisher(this.inputType) && !FunctionTypeUtils.isMultipleArgumentType(this.inputType)) {
+			if (this.inputPlan.jsonArrayElementType != null && JsonMapper.isJsonArray(input)) {
+				return SimpleFunctionRegistry.this.jsonMapper.fromJsonArray(input, this.inputPlan.jsonArrayElementType);
+			}
+			if (!(input instanceof Publisher) && this.inputPlan.publisher && !this.inputPlan.multipleArguments) {
 				return input == null
-						? FunctionTypeUtils.isMono(this.inputType) ? Mono.empty() : Flux.empty()
-						: FunctionTypeUtils.isMono(this.inputType) ? Mono.just(input) : Flux.just(input);
+						? this.inputPlan.mono ? Mono.empty() : Flux.empty()
+						: this.inputPlan.mono ? Mono.just(input) : Flux.just(input);
 			}
 			return input;
 		}
@@ -535,17 +871,95 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 		/*
 		 *
 		 */
-		@SuppressWarnings("unchecked")
 		private Object doApply(Object input) {
-			Object result;
-
 			input = this.fluxifyInputIfNecessary(input);
 
-			Object convertedInput = this.convertInputIfNecessary(input, this.inputType);
+			if (this.batchElementPlan != null && input instanceof Flux) {
+				return this.doApplyInBatches((Flux<?>) input);
+			}
+			if (this.concurrency > 1 && input instanceof Flux) {
+				return this.doApplyInParallel((Flux<?>) input);
+			}
 
-			if (this.isRoutingFunction() || this.isComposed()) {
+			Object convertedInput = this.convertInputAndRecord(input, this.inputPlan);
+
+			return this.doInvoke(convertedInput);
+		}
+
+		/*
+		 * View of this function which is given to FunctionAroundWrapper. Created lazily
+		 * and only once (a race would merely create an equivalent instance).
+		 */
+		private FunctionInvocationWrapper getAroundWrapperTarget() {
+			FunctionInvocationWrapper target = this.aroundWrapperTargetView;
+			if (target == null) {
+				target = new FunctionInvocationWrapper(this, this.expectedOutputContentType, true);
+				this.aroundWrapperTargetView = target;
+			}
+			return target;
+		}
+
+		/*
+		 * Same as convertInputIfNecessary(..), however conversion time is reported to
+		 * FunctionAroundWrapper (if any). Publisher input is reported per element
+		 * (see convertInputPublisherIfNecessary(..)).
+		 */
+		private Object convertInputAndRecord(Object input, InvocationPlan plan) {
+			FunctionAroundWrapper aroundWrapper = SimpleFunctionRegistry.this.functionAroundWrapper;
+			if (aroundWrapper == null || input instanceof Publisher) {
+				return this.convertInputIfNecessary(input, plan);
+			}
+			long start = System.nanoTime();
+			Object convertedInput = this.convertInputIfNecessary(input, plan);
+			aroundWrapper.onInputConversion(this, System.nanoTime() - start);
+			return convertedInput;
+		}
+
+		/*
+		 * Same as convertOutputIfNecessary(..), however conversion time is reported to
+		 * FunctionAroundWrapper (if any). Publisher output is reported per element
+		 * (see convertOutputPublisherIfNecessary(..)).
+		 */
+		private Object convertOutputAndRecord(Object output, InvocationPlan plan, String[] contentType) {
+			FunctionAroundWrapper aroundWrapper = SimpleFunctionRegistry.this.functionAroundWrapper;
+			if (aroundWrapper == null || output instanceof Publisher) {
+				return this.convertOutputIfNecessary(output, plan, contentType);
+			}
+			long start = System.nanoTime();
+			Object convertedOutput = this.convertOutputIfNecessary(output, plan, contentType);
+			aroundWrapper.onOutputConversion(this, System.nanoTime() - start);
+			return convertedOutput;
+		}
+
+		/*
+		 * Each element only writes to its own index, so arrays can be safely shared.
+		 */
+		private void applyBatchElement(Object[] values, int index, Object[] results, Throwable[] errors) {
+			try {
+				results[index] = this.apply(values[index]);
+			}
+			catch (Exception e) {
+				errors[index] = e;
+				if (logger.isDebugEnabled()) {
+					logger.debug("Failed to invoke function '" + this.functionDefinition + "' with batch element " + index, e);
+				}
+			}
+		}
+
+		/*
+		 * Invokes target function with input which is already converted (if necessary).
+		 */
+		@SuppressWarnings("unchecked")
+		private Object doInvoke(Object convertedInput) {
+			Object result;
+			if (this.isRoutingFunction()) {
 				result = ((Function) this.target).apply(convertedInput);
 			}
+			else if (this.isComposed()) {
+				result = ((Function) this.target).apply(this.executionScheduler != null && convertedInput instanceof Publisher
+						? this.publishOnExecutionScheduler((Publisher) convertedInput)
+						: convertedInput);
+			}
 			else if (this.isSupplier()) {
 				result = ((Supplier) this.target).get();
 			}
@@ -564,7 +978,10 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 		@SuppressWarnings("unchecked")
 		private Object invokeFunction(Object convertedInput) {
 			Object result;
-			if (!this.isTypePublisher(this.inputType) && convertedInput instanceof Publisher) {
+			if (!this.inputPlan.publisher && convertedInput instanceof Publisher) {
+				if (this.executionScheduler != null) {
+					convertedInput = this.publishOnExecutionScheduler((Publisher) convertedInput);
+				}
 				result = convertedInput instanceof Mono
 						? Mono.from((Publisher) convertedInput).map(value -> this.invokeFunctionAndEnrichResultIfNecessary(value))
 							.doOnError(ex -> logger.error("Failed to invoke function '" + this.functionDefinition + "'", (Throwable) ex))
@@ -577,6 +994,203 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 			return result;
 		}
 
+		/*
+		 * Moves the processing of elements of the provided Publisher to the execution scheduler.
+		 * If FunctionAroundWrapper is set, the time each element waits for the scheduler is
+		 * reported to it, which requires each element to carry the time it was emitted.
+		 */
+		private Publisher<?> publishOnExecutionScheduler(Publisher<?> input) {
+			FunctionAroundWrapper aroundWrapper = SimpleFunctionRegistry.this.functionAroundWrapper;
+			if (aroundWrapper == null) {
+				return input instanceof Mono
+						? Mono.from(input).publishOn(this.executionScheduler)
+						: Flux.from(input).publishOn(this.executionScheduler);
+			}
+			Function<Object, ScheduledValue> emitted = value -> new ScheduledValue(value, System.nanoTime());
+			Function<ScheduledValue, Object> scheduled = scheduledValue -> {
+				aroundWrapper.onExecutionScheduled(this, System.nanoTime() - scheduledValue.emitted);
+				return scheduledValue.value;
+			};
+			return input instanceof Mono
+					? Mono.from(input).map(emitted).publishOn(this.executionScheduler).map(scheduled)
+					: Flux.from(input).map(emitted).publishOn(this.executionScheduler).map(scheduled);
+		}
+
+		/*
+		 * Execution configuration only matters for imperative functions, since reactive
+		 * functions control their own threading.
+		 */
+		private FunctionConfigurationProperties resolveConfiguration() {
+			FunctionProperties properties = SimpleFunctionRegistry.this.functionProperties;
+			if (properties == null || this.inputType == null || this.inputPlan.publisher) {
+				return null;
+			}
+			return properties.getConfiguration().get(this.functionDefinition);
+		}
+
+		/*
+		 * Converts and invokes each element of the provided Flux on one of the 'concurrency' rails.
+		 * Without order key elements are distributed between rails as they come (order is not preserved).
+		 * With order key elements are distributed by the hash of the key, so elements with the same key
+		 * are always processed by the same rail, in order. The number of groups is bounded by
+		 * the concurrency, so groups never starve each other.
+		 */
+		private Object doApplyInParallel(Flux<?> input) {
+			Scheduler scheduler = this.executionScheduler == null ? Schedulers.parallel() : this.executionScheduler;
+			Flux<Object> result;
+			if (this.orderedBy == null) {
+				ParallelFlux<?> rails = input.parallel(this.concurrency, this.prefetch).runOn(scheduler, this.prefetch);
+				result = this.isConsumer()
+						? rails.doOnNext(this::doApply).sequential().cast(Object.class)
+						: rails.map(this::doApply).sequential();
+			}
+			else {
+				result = input.groupBy(this::getRail, this.prefetch)
+						.flatMap(rail -> {
+							Flux<?> elements = rail.publishOn(scheduler, this.prefetch);
+							return this.isConsumer() ? elements.doOnNext(this::doApply) : elements.map(this::doApply);
+						}, this.concurrency);
+			}
+			result = result.doOnError(ex -> logger.error("Failed to invoke function '" + this.functionDefinition + "'", ex));
+			return this.isConsumer() ? result.then() : result;
+		}
+
+		/*
+		 * Batching is only possible if the function accepts List (or Message of List),
+		 * otherwise configuration is ignored.
+		 */
+		private InvocationPlan resolveBatchElementPlan() {
+			Class<?> rawPayloadType = FunctionTypeUtils.getRawType(this.inputPlan.payloadType);
+			if (rawPayloadType == null || !rawPayloadType.isAssignableFrom(ArrayList.class)) {
+				logger.warn("Batching is ignored for function '" + this.functionDefinition
+						+ "' since its input is not a List, but " + this.inputType);
+				return null;
+			}
+			ResolvableType elementType = ResolvableType.forType(this.inputPlan.payloadType).asCollection().getGeneric(0);
+			return new InvocationPlan(elementType.resolve() == null ? Object.class : elementType.getType());
+		}
+
+		/*
+		 * Groups elements into batches of up to 'batchSize' elements (or whatever arrived
+		 * since the previous batch once 'batchTimeout' elapses) and invokes the function once
+		 * per batch. If the function returns a Collection (or Message of Collection) its
+		 * elements are emitted individually. Unlike bufferTimeout(..), the batches are only
+		 * emitted on demand, so a slow subscriber simply slows down the consumption of input.
+		 * Timeout signals which arrive while there is no demand are dropped.
+		 */
+		@SuppressWarnings("unchecked")
+		private Object doApplyInBatches(Flux<?> input) {
+			Flux<Object> timedInput = input.publish(elements -> Flux.<Object>merge(elements,
+					Flux.interval(this.batchTimeout).onBackpressureDrop().map(tick -> BATCH_TIMEOUT)
+						.takeUntilOther(elements.ignoreElements())));
+			Flux<Object> result = Flux.defer(() -> {
+				AtomicInteger size = new AtomicInteger();
+				return timedInput.bufferUntil(element -> {
+					if (element == BATCH_TIMEOUT || size.incrementAndGet() == this.batchSize) {
+						size.set(0);
+						return true;
+					}
+					return false;
+				});
+			})
+					.map(batch -> {
+						if (!batch.isEmpty() && batch.get(batch.size() - 1) == BATCH_TIMEOUT) {
+							batch.remove(batch.size() - 1);
+						}
+						return batch;
+					})
+					.filter(batch -> !batch.isEmpty())
+					.concatMapIterable(batch -> this.doApplyBatch((List<Object>) batch))
+					.doOnError(ex -> logger.error("Failed to invoke function '" + this.functionDefinition + "'", ex));
+			return this.isConsumer() ? result.then() : result;
+		}
+
+		/*
+		 * Converts all elements of the batch (using the plan resolved once for all of them),
+		 * invokes the function and un-batches the result if necessary. Conversion time of
+		 * the entire batch is reported to FunctionAroundWrapper (if any).
+		 */
+		@SuppressWarnings("unchecked")
+		private Iterable<Object> doApplyBatch(List<Object> batch) {
+			FunctionAroundWrapper aroundWrapper = SimpleFunctionRegistry.this.functionAroundWrapper;
+			long start = aroundWrapper == null ? 0 : System.nanoTime();
+			List<Object> convertedBatch = new ArrayList<>(batch.size());
+			List<MessageHeaders> batchHeaders = this.inputPlan.message ? new ArrayList<>(batch.size()) : null;
+			for (Object element : batch) {
+				convertedBatch.add(this.convertBatchElement(element));
+				if (batchHeaders != null) {
+					batchHeaders.add(element instanceof Message ? ((Message<?>) element).getHeaders() : LazyMessageHeaders.of(null));
+				}
+			}
+			Object batchInput = batchHeaders == null
+					? convertedBatch
+					: new GenericMessage<>(convertedBatch,
+							LazyMessageHeaders.of(null, Collections.singletonMap(FunctionProperties.BATCH_HEADERS, batchHeaders)));
+			if (aroundWrapper != null) {
+				aroundWrapper.onInputConversion(this, System.nanoTime() - start);
+			}
+
+			if (this.isConsumer()) {
+				this.invokeConsumer(batchInput);
+				return Collections.emptyList();
+			}
+			Object result = this.invokeFunctionAndEnrichResultIfNecessary(batchInput);
+			if (result instanceof Collection) {
+				return (Collection<Object>) result;
+			}
+			else if (result instanceof Message && ((Message) result).getPayload() instanceof Collection) {
+				MessageHeaders headers = ((Message) result).getHeaders();
+				List<Object> messages = new ArrayList<>();
+				for (Object value : (Collection<Object>) ((Message) result).getPayload()) {
+					messages.add(new GenericMessage<>(value, LazyMessageHeaders.of(headers)));
+				}
+				return messages;
+			}
+			return result == null ? Collections.emptyList() : Collections.singletonList(result);
+		}
+
+		private Object convertBatchElement(Object element) {
+			InvocationPlan plan = this.batchElementPlan;
+			Class<?> rawPayloadType = plan.message ? TypeResolver.resolveRawClass(plan.payloadType, null) : plan.rawType;
+			Object payload = element instanceof Message ? ((Message<?>) element).getPayload() : element;
+			Object convertedPayload;
+			if (rawPayloadType.isInstance(payload)) {
+				convertedPayload = payload;
+			}
+			else if (element instanceof Message) {
+				convertedPayload = rawPayloadType == plan.payloadType
+						? SimpleFunctionRegistry.this.messageConverter.fromMessage((Message<?>) element, rawPayloadType)
+						: SimpleFunctionRegistry.this.messageConverter.fromMessage((Message<?>) element, rawPayloadType, plan.payloadType);
+			}
+			else if (JsonMapper.isJsonString(payload)) {
+				convertedPayload = SimpleFunctionRegistry.this.jsonMapper.fromJson(payload, plan.payloadType);
+			}
+			else if (SimpleFunctionRegistry.this.conversionService != null
+					&& SimpleFunctionRegistry.this.conversionService.canConvert(payload.getClass(), rawPayloadType)) {
+				convertedPayload = SimpleFunctionRegistry.this.conversionService.convert(payload, rawPayloadType);
+			}
+			else {
+				convertedPayload = null;
+			}
+			Assert.state(convertedPayload != null, () -> "Failed to convert batch element '" + element
+					+ "' of function '" + this.functionDefinition + "' to " + plan.payloadType);
+
+			if (!plan.message) {
+				return convertedPayload;
+			}
+			else if (element instanceof Message) {
+				return convertedPayload == payload
+						? element
+						: new GenericMessage<>(convertedPayload, LazyMessageHeaders.of(((Message<?>) element).getHeaders()));
+			}
+			return new GenericMessage<>(convertedPayload, LazyMessageHeaders.of(null));
+		}
+
+		private int getRail(Object value) {
+			Object key = value instanceof Message ? ((Message<?>) value).getHeaders().get(this.orderedBy) : null;
+			return key == null ? 0 : Math.floorMod(key.hashCode(), this.concurrency);
+		}
+
 		/*
 		 *
 		 */
@@ -597,7 +1211,7 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 		@SuppressWarnings("unchecked")
 		private Object invokeConsumer(Object convertedInput) {
 			Object result = null;
-			if (this.isTypePublisher(this.inputType)) {
+			if (this.inputPlan.publisher) {
 				if (convertedInput instanceof Flux) {
 					result = ((Flux) convertedInput)
 							.transform(flux -> {
@@ -626,14 +1240,16 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 
 		/**
 		 * This operation will parse value coming in as Tuples to Object[].
+		 * All Tuples (Tuple2 - Tuple8) extend {@link Tuple2}, so values are accessed directly
+		 * via {@link Tuple2#toArray()} regardless of arity.
 		 */
 		private Object[] parseMultipleValueArguments(Object multipleValueArgument, int argumentCount) {
-			Object[] parsedArgumentValues = new Object[argumentCount];
-			if (multipleValueArgument.getClass().getName().startsWith("reactor.util.function.Tuple")) {
-				for (int i = 0; i < argumentCount; i++) {
-					Expression parsed = new SpelExpressionParser().parseExpression("getT" + (i + 1) + "()");
-					Object outputArgument = parsed.getValue(multipleValueArgument);
-					parsedArgumentValues[i] = outputArgument;
+			if (multipleValueArgument instanceof Tuple2) {
+				Object[] parsedArgumentValues = ((Tuple2<?, ?>) multipleValueArgument).toArray();
+				if (parsedArgumentValues.length != argumentCount) {
+					throw new IllegalArgumentException("Function '" + this.functionDefinition + "' expects "
+							+ argumentCount + " arguments, but " + parsedArgumentValues.length + " were provided: "
+							+ multipleValueArgument);
 				}
 				return parsedArgumentValues;
 			}
@@ -643,19 +1259,19 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 		/*
 		 *
 		 */
-		private Object convertInputIfNecessary(Object input, Type type) {
-			if (this.getRawClassFor(type) == Void.class && !(input instanceof Publisher) && !(input instanceof Message)) {
+		private Object convertInputIfNecessary(Object input, InvocationPlan plan) {
+			if (plan.rawType == Void.class && !(input instanceof Publisher) && !(input instanceof Message)) {
 				logger.info("Input value '" + input + "' is ignored for function '"
 						+ this.functionDefinition + "' since it's input type is Void and as such it is treated as Supplier.");
 				input = null;
 			}
 
-			if (FunctionTypeUtils.isMultipleArgumentType(type)) {
-				Type[] inputTypes = ((ParameterizedType) type).getActualTypeArguments();
-				Object[] multipleValueArguments = this.parseMultipleValueArguments(input, inputTypes.length);
-				Object[] convertedInputs = new Object[inputTypes.length];
+			if (plan.multipleArguments) {
+				InvocationPlan[] argumentPlans = plan.argumentPlans;
+				Object[] multipleValueArguments = this.parseMultipleValueArguments(input, argumentPlans.length);
+				Object[] convertedInputs = new Object[argumentPlans.length];
 				for (int i = 0; i < multipleValueArguments.length; i++) {
-					Object convertedInput = this.convertInputIfNecessary(multipleValueArguments[i], inputTypes[i]);
+					Object convertedInput = this.convertInputIfNecessary(multipleValueArguments[i], argumentPlans[i]);
 					convertedInputs[i] = convertedInput;
 				}
 				return Tuples.fromArray(convertedInputs);
@@ -667,20 +1283,20 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 			}
 
 			if (input instanceof Publisher) {
-				convertedInput = this.convertInputPublisherIfNecessary((Publisher) input, type);
+				convertedInput = this.convertInputPublisherIfNecessary((Publisher) input, plan);
 			}
 			else if (input instanceof Message) {
-				convertedInput = this.convertInputMessageIfNecessary((Message) input, type);
-				if (!FunctionTypeUtils.isMultipleArgumentType(this.inputType)) {
-					convertedInput = this.isPropagateInputHeaders((Message) input) ? new OriginalMessageHolder(convertedInput, (Message<?>) input) : convertedInput;
+				convertedInput = this.convertInputMessageIfNecessary((Message) input, plan);
+				if (!this.inputPlan.multipleArguments) {
+					convertedInput = this.propagateInputHeaders ? new OriginalMessageHolder(convertedInput, (Message<?>) input) : convertedInput;
 				}
 			}
 			else {
-				convertedInput = this.convertNonMessageInputIfNecessary(type, input);
+				convertedInput = this.convertNonMessageInputIfNecessary(plan, input);
 			}
 			// wrap in Message if necessary
 			if (this.isWrapConvertedInputInMessage(convertedInput)) {
-				convertedInput = MessageBuilder.withPayload(convertedInput).build();
+				convertedInput = new GenericMessage<>(convertedInput, LazyMessageHeaders.of(null));
 			}
 			return convertedInput;
 		}
@@ -689,16 +1305,16 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 		 * This is an optional conversion which would only happen if `expected-content-type` is
 		 * set as a header in a message or explicitly provided as part of the lookup.
 		 */
-		private Object convertOutputIfNecessary(Object output, Type type, String[] contentType) {
+		private Object convertOutputIfNecessary(Object output, InvocationPlan plan, String[] contentType) {
 			if (!(output instanceof Publisher) && this.enhancer != null) {
 				output = enhancer.apply(output);
 			}
 			Object convertedOutput = output;
-			if (FunctionTypeUtils.isMultipleArgumentType(type)) {
-				convertedOutput = this.convertMultipleOutputArgumentTypeIfNecesary(convertedOutput, type, contentType);
+			if (plan.multipleArguments) {
+				convertedOutput = this.convertMultipleOutputArgumentTypeIfNecesary(convertedOutput, plan, contentType);
 			}
 			else if (output instanceof Publisher) {
-				convertedOutput = this.convertOutputPublisherIfNecessary((Publisher) output, type, contentType);
+				convertedOutput = this.convertOutputPublisherIfNecessary((Publisher) output, plan, contentType);
 			}
 			else if (output instanceof Message) {
 				convertedOutput = this.convertOutputMessageIfNecessary(output, ObjectUtils.isEmpty(contentType) ? null : contentType[0]);
@@ -717,18 +1333,15 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 		/*
 		 *
 		 */
-		private Object convertNonMessageInputIfNecessary(Type inputType, Object input) {
+		private Object convertNonMessageInputIfNecessary(InvocationPlan plan, Object input) {
 			Object convertedInput = input;
-			Class<?> rawInputType = this.isTypePublisher(inputType) || this.isInputTypeMessage()
-					? TypeResolver.resolveRawClass(FunctionTypeUtils.getImmediateGenericType(inputType, 0), null)
-					: this.getRawClassFor(inputType);
+			Class<?> rawInputType = plan.publisher || this.isInputTypeMessage()
+					? plan.rawImmediateGenericType
+					: plan.rawType;
 
 			if (JsonMapper.isJsonString(input) && !Message.class.isAssignableFrom(rawInputType)) {
-				if (FunctionTypeUtils.isMessage(inputType)) {
-					inputType = FunctionTypeUtils.getGenericType(inputType);
-				}
-				if (Object.class != inputType) {
-					convertedInput = SimpleFunctionRegistry.this.jsonMapper.fromJson(input, inputType);
+				if (Object.class != plan.payloadType) {
+					convertedInput = SimpleFunctionRegistry.this.jsonMapper.fromJson(input, plan.payloadType);
 				}
 			}
 			else if (SimpleFunctionRegistry.this.conversionService != null
@@ -743,8 +1356,7 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 		 *
 		 */
 		private boolean isWrapConvertedInputInMessage(Object convertedInput) {
-			return this.inputType != null
-					&& FunctionTypeUtils.isMessage(this.inputType)
+			return this.inputPlan.message
 					&& !(convertedInput instanceof Message)
 					&& !(convertedInput instanceof Publisher)
 					&& !(convertedInput instanceof OriginalMessageHolder);
@@ -753,41 +1365,17 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 		/*
 		 *
 		 */
-		private boolean isPropagateInputHeaders(Message message) {
-			return !this.isTypePublisher(this.inputType) && this.isFunction();
-		}
-
-		/*
-		 *
-		 */
-		private Type extractActualValueTypeIfNecessary(Type type) {
-			if (type  instanceof ParameterizedType && (FunctionTypeUtils.isPublisher(type) || FunctionTypeUtils.isMessage(type))) {
-				return FunctionTypeUtils.getImmediateGenericType(type, 0);
-			}
-			return type;
-		}
-
-		private boolean isConversionHintRequired(Object actualType, Class<?> rawType) {
-			return rawType != actualType;
-		}
-
-		/*
-		 *
-		 */
-		private Object convertInputMessageIfNecessary(Message message, Type type) {
+		private Object convertInputMessageIfNecessary(Message message, InvocationPlan plan) {
 			if (message.getPayload() instanceof Optional) {
 				return message;
 			}
-			if (type == null) {
+			if (plan.type == null) {
 				return null;
 			}
 
-			Object convertedInput = message;
-			type = this.extractActualValueTypeIfNecessary(type);
-			Class rawType = TypeResolver.resolveRawClass(type, null);
-			convertedInput = this.isConversionHintRequired(type, rawType)
-					? SimpleFunctionRegistry.this.messageConverter.fromMessage(message, rawType, type)
-					: SimpleFunctionRegistry.this.messageConverter.fromMessage(message, rawType);
+			Object convertedInput = plan.conversionHintRequired
+					? SimpleFunctionRegistry.this.messageConverter.fromMessage(message, plan.rawValueType, plan.valueType)
+					: SimpleFunctionRegistry.this.messageConverter.fromMessage(message, plan.rawValueType);
 
 
 			if (this.isInputTypeMessage()) {
@@ -803,7 +1391,7 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 					convertedInput = message;
 				}
 				else {
-					convertedInput = MessageBuilder.withPayload(convertedInput).copyHeaders(message.getHeaders()).build();
+					convertedInput = new GenericMessage<>(convertedInput, LazyMessageHeaders.of(message.getHeaders()));
 				}
 			}
 			return convertedInput;
@@ -812,15 +1400,15 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 		/**
 		 * This method handles function with multiple output arguments (e.g. Tuple2<..>)
 		 */
-		private Object convertMultipleOutputArgumentTypeIfNecesary(Object output, Type type, String[] contentType) {
-			Type[] outputTypes = ((ParameterizedType) type).getActualTypeArguments();
-			Object[] multipleValueArguments = this.parseMultipleValueArguments(output, outputTypes.length);
-			Object[] convertedOutputs = new Object[outputTypes.length];
+		private Object convertMultipleOutputArgumentTypeIfNecesary(Object output, InvocationPlan plan, String[] contentType) {
+			InvocationPlan[] argumentPlans = plan.argumentPlans;
+			Object[] multipleValueArguments = this.parseMultipleValueArguments(output, argumentPlans.length);
+			Object[] convertedOutputs = new Object[argumentPlans.length];
 			for (int i = 0; i < multipleValueArguments.length; i++) {
 				String[] ctToUse = !ObjectUtils.isEmpty(contentType)
 						? new String[]{contentType[i]}
 						: new String[] {"application/json"};
-				Object convertedInput = this.convertOutputIfNecessary(multipleValueArguments[i], outputTypes[i], ctToUse);
+				Object convertedInput = this.convertOutputIfNecessary(multipleValueArguments[i], argumentPlans[i], ctToUse);
 				convertedOutputs[i] = convertedInput;
 			}
 			return Tuples.fromArray(convertedOutputs);
@@ -858,7 +1446,7 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 			Collection outputCollection = (Collection) output;
 			Collection convertedOutputCollection = output instanceof List ? new ArrayList<>() : new TreeSet<>();
 			for (Object outToConvert : outputCollection) {
-				Object result = this.convertOutputIfNecessary(outToConvert, this.outputType, contentType);
+				Object result = this.convertOutputIfNecessary(outToConvert, this.outputPlan, contentType);
 				Assert.notNull(result, () -> "Failed to convert output '" + output + "'");
 				convertedOutputCollection.add(result);
 			}
@@ -869,12 +1457,12 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 		 *
 		 */
 		@SuppressWarnings("unchecked")
-		private Object convertInputPublisherIfNecessary(Publisher publisher, Type type) {
-			Type actualType = type != null ? FunctionTypeUtils.getGenericType(type) : type;
+		private Object convertInputPublisherIfNecessary(Publisher publisher, InvocationPlan plan) {
+			InvocationPlan elementPlan = plan.elementPlan;
 			return publisher instanceof Mono
-					? Mono.from(publisher).map(v -> this.convertInputIfNecessary(v, actualType))
+					? Mono.from(publisher).map(v -> this.convertInputAndRecord(v, elementPlan))
 							.doOnError(ex -> logger.error("Failed to convert input", (Throwable) ex))
-					: Flux.from(publisher).map(v -> this.convertInputIfNecessary(v, actualType))
+					: Flux.from(publisher).map(v -> this.convertInputAndRecord(v, elementPlan))
 							.doOnError(ex -> logger.error("Failed to convert input", (Throwable) ex));
 		}
 
@@ -882,16 +1470,121 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 		 *
 		 */
 		@SuppressWarnings("unchecked")
-		private Object convertOutputPublisherIfNecessary(Publisher publisher, Type type, String[] expectedOutputContentType) {
-			Type actualType = type != null ? FunctionTypeUtils.getGenericType(type) : type;
+		private Object convertOutputPublisherIfNecessary(Publisher publisher, InvocationPlan plan, String[] expectedOutputContentType) {
+			InvocationPlan elementPlan = plan.elementPlan;
 			return publisher instanceof Mono
-					? Mono.from(publisher).map(v -> this.convertOutputIfNecessary(v, actualType, expectedOutputContentType))
+					? Mono.from(publisher).map(v -> this.convertOutputAndRecord(v, elementPlan, expectedOutputContentType))
 							.doOnError(ex -> logger.error("Failed to convert output", (Throwable) ex))
-					: Flux.from(publisher).map(v -> this.convertOutputIfNecessary(v, actualType, expectedOutputContentType))
+					: Flux.from(publisher).map(v -> this.convertOutputAndRecord(v, elementPlan, expectedOutputContentType))
 							.doOnError(ex -> logger.error("Failed to convert output", (Throwable) ex));
 		}
 	}
 
+	/**
+	 * Immutable set of facts about the input or output type of a function (e.g., raw class,
+	 * publisher, message and multiple-argument flags as well as types used for conversion).
+	 * It is resolved once when {@link FunctionInvocationWrapper} is created, so the invocation
+	 * path only needs to branch on its fields instead of re-introspecting the same type.
+	 */
+	private static final class InvocationPlan {
+
+		private final Type type;
+
+		private final Class<?> rawType;
+
+		private final boolean publisher;
+
+		private final boolean mono;
+
+		private final boolean message;
+
+		private final boolean multipleArguments;
+
+		/*
+		 * Raw class of the first generic argument (e.g., 'Foo' for 'Flux<Foo>').
+		 */
+		private final Class<?> rawImmediateGenericType;
+
+		/*
+		 * Type to convert JSON input to (e.g., 'Foo' for 'Message<Foo>').
+		 */
+		private final Type payloadType;
+
+		/*
+		 * Type (and its raw class) to convert message payload to.
+		 */
+		private final Type valueType;
+
+		private final Class<?> rawValueType;
+
+		private final boolean conversionHintRequired;
+
+		/*
+		 * Plan for individual elements of a Publisher (or this plan if type is not generic).
+		 */
+		private final InvocationPlan elementPlan;
+
+		/*
+		 * Plans for each argument of a multiple-argument (Tuple) type.
+		 */
+		private final InvocationPlan[] argumentPlans;
+
+		/*
+		 * Type of elements of Flux input which could be streamed directly from JSON array
+		 * (e.g., 'Foo' for 'Flux<Foo>' or 'Flux<Message<Foo>>'), otherwise null.
+		 */
+		private final Type jsonArrayElementType;
+
+		private InvocationPlan(@Nullable Type type) {
+			this.type = type;
+			boolean unresolvedType = type instanceof TypeVariable || type instanceof WildcardType;
+			this.rawType = unresolvedType ? Object.class : TypeResolver.resolveRawClass(type, null);
+			this.publisher = type != null && FunctionTypeUtils.isPublisher(type);
+			this.mono = this.publisher && FunctionTypeUtils.isMono(type);
+			this.message = type != null && FunctionTypeUtils.isMessage(type);
+			this.multipleArguments = !unresolvedType && FunctionTypeUtils.isMultipleArgumentType(type);
+			this.rawImmediateGenericType = TypeResolver.resolveRawClass(FunctionTypeUtils.getImmediateGenericType(type, 0), null);
+			this.payloadType = this.message ? FunctionTypeUtils.getGenericType(type) : type;
+			this.valueType = type instanceof ParameterizedType && (this.publisher || this.message)
+					? FunctionTypeUtils.getImmediateGenericType(type, 0)
+					: type;
+			this.rawValueType = this.valueType == null ? null : TypeResolver.resolveRawClass(this.valueType, null);
+			this.conversionHintRequired = this.rawValueType != this.valueType;
+
+			Type elementType = type != null ? FunctionTypeUtils.getGenericType(type) : null;
+			this.elementPlan = elementType == type ? this : new InvocationPlan(elementType);
+
+			if (this.multipleArguments && type instanceof ParameterizedType) {
+				Type[] argumentTypes = ((ParameterizedType) type).getActualTypeArguments();
+				this.argumentPlans = new InvocationPlan[argumentTypes.length];
+				for (int i = 0; i < argumentTypes.length; i++) {
+					this.argumentPlans[i] = new InvocationPlan(argumentTypes[i]);
+				}
+			}
+			else {
+				this.argumentPlans = new InvocationPlan[0];
+			}
+
+			this.jsonArrayElementType = this.publisher && !this.mono && !this.multipleArguments
+					&& isJsonArrayElementType(this.elementPlan.payloadType) ? this.elementPlan.payloadType : null;
+		}
+
+		/*
+		 * Values which are naturally represented by the entire JSON array (e.g., String, Collection)
+		 * or can not be resolved (Object) are never streamed.
+		 */
+		private static boolean isJsonArrayElementType(@Nullable Type type) {
+			if (type == null || type instanceof TypeVariable || type instanceof WildcardType) {
+				return false;
+			}
+			Class<?> rawType = TypeResolver.resolveRawClass(type, null);
+			return rawType != Object.class && rawType != String.class && !rawType.isArray()
+					&& !Collection.class.isAssignableFrom(rawType)
+					&& !Publisher.class.isAssignableFrom(rawType)
+					&& !Message.class.isAssignableFrom(rawType);
+		}
+	}
+
 	/**
 	 *
 	 */
@@ -920,4 +1613,19 @@ public class SimpleFunctionRegistry implements FunctionRegistry, FunctionInspect
 			throw new UnsupportedOperationException();
 		}
 	}
+
+	/*
+	 * Element of Publisher input along with the time it was emitted, so the time it spent
+	 * waiting for the execution scheduler can be measured.
+	 */
+	private static final class ScheduledValue {
+		private final Object value;
+
+		private final long emitted;
+
+		private ScheduledValue(Object value, long emitted) {
+			this.value = value;
+			this.emitted = emitted;
+		}
+	}
 }
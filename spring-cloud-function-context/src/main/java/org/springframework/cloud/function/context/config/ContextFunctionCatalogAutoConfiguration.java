@@ -27,6 +27,7 @@ import java.util.stream.Collectors;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.Gson;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -34,6 +35,7 @@ import org.springframework.cloud.function.context.FunctionCatalog;
 import org.springframework.cloud.function.context.FunctionProperties;
 import org.springframework.cloud.function.context.FunctionRegistry;
 import org.springframework.cloud.function.context.catalog.BeanFactoryAwareFunctionRegistry;
+import org.springframework.cloud.function.context.catalog.FunctionAroundWrapper;
 import org.springframework.cloud.function.json.GsonMapper;
 import org.springframework.cloud.function.json.JacksonMapper;
 import org.springframework.cloud.function.json.JsonMapper;
@@ -70,7 +72,9 @@ public class ContextFunctionCatalogAutoConfiguration {
 	static final String PREFERRED_MAPPER_PROPERTY = "spring.http.converters.preferred-json-mapper";
 
 	@Bean
-	public FunctionRegistry functionCatalog(List<MessageConverter> messageConverters, JsonMapper jsonMapper, ConfigurableApplicationContext context) {
+	public FunctionRegistry functionCatalog(List<MessageConverter> messageConverters, JsonMapper jsonMapper,
+			ConfigurableApplicationContext context, ObjectProvider<FunctionAroundWrapper> functionAroundWrapper,
+			FunctionProperties functionProperties) {
 		ConfigurableConversionService conversionService = (ConfigurableConversionService) context.getBeanFactory().getConversionService();
 		Map<String, GenericConverter> converters = context.getBeansOfType(GenericConverter.class);
 		for (GenericConverter converter : converters.values()) {
@@ -111,7 +115,10 @@ public class ContextFunctionCatalogAutoConfiguration {
 			messageConverter = new SmartCompositeMessageConverter(mcList);
 		}
 
-		return new BeanFactoryAwareFunctionRegistry(conversionService, messageConverter, jsonMapper);
+		BeanFactoryAwareFunctionRegistry functionRegistry = new BeanFactoryAwareFunctionRegistry(conversionService, messageConverter, jsonMapper);
+		functionRegistry.setFunctionAroundWrapper(functionAroundWrapper.getIfAvailable());
+		functionRegistry.setFunctionProperties(functionProperties);
+		return functionRegistry;
 	}
 
 	@Bean(RoutingFunction.FUNCTION_NAME)
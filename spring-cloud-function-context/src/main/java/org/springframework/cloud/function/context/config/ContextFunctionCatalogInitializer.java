@@ -35,9 +35,12 @@ import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
 import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
 import org.springframework.boot.context.properties.ConfigurationPropertiesBindingPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.cloud.function.context.FunctionCatalog;
+import org.springframework.cloud.function.context.FunctionProperties;
 import org.springframework.cloud.function.context.FunctionRegistration;
 import org.springframework.cloud.function.context.FunctionRegistry;
+import org.springframework.cloud.function.context.catalog.FunctionAroundWrapper;
 import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry;
 import org.springframework.cloud.function.json.JsonMapper;
 import org.springframework.context.ApplicationContextInitializer;
@@ -178,7 +181,12 @@ public class ContextFunctionCatalogInitializer implements ApplicationContextInit
 					CompositeMessageConverter messageConverter = new CompositeMessageConverter(messageConverters);
 
 					ConversionService conversionService = new DefaultConversionService();
-					return new SimpleFunctionRegistry(conversionService, messageConverter, this.context.getBean(JsonMapper.class));
+					SimpleFunctionRegistry functionRegistry = new SimpleFunctionRegistry(conversionService, messageConverter,
+							this.context.getBean(JsonMapper.class));
+					functionRegistry.setFunctionAroundWrapper(this.context.getBeanProvider(FunctionAroundWrapper.class).getIfAvailable());
+					functionRegistry.setFunctionProperties(Binder.get(this.context.getEnvironment())
+							.bind(FunctionProperties.PREFIX, FunctionProperties.class).orElseGet(FunctionProperties::new));
+					return functionRegistry;
 				});
 				this.context.registerBean(FunctionRegistrationPostProcessor.class,
 						() -> new FunctionRegistrationPostProcessor(this.context.getAutowireCapableBeanFactory()
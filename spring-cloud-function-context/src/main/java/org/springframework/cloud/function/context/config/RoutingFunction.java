@@ -16,6 +16,10 @@
 
 package org.springframework.cloud.function.context.config;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 import org.apache.commons.logging.Log;
@@ -26,9 +30,13 @@ import reactor.core.publisher.Mono;
 
 import org.springframework.cloud.function.context.FunctionCatalog;
 import org.springframework.cloud.function.context.FunctionProperties;
+import org.springframework.cloud.function.context.catalog.FunctionCatalogEvent;
 import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.expression.MapAccessor;
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.messaging.Message;
@@ -39,25 +47,51 @@ import org.springframework.util.StringUtils;
 /**
  * An implementation of Function which acts as a gateway/router by actually
  * delegating incoming invocation to a function specified .. .
+ * <br><br>
+ * Functions resolved from function definitions (provided as message header, application
+ * property or as a result of routing expression) are kept in a bounded route table, so after
+ * warm-up routing a message requires a single map read. The route table is cleared
+ * on every {@link FunctionCatalogEvent}.
  *
  * @author Oleg Zhurakousky
  * @since 2.1
  *
  */
 //TODO - perhaps change to Function<Message<Object>, Message<Object>>
-public class RoutingFunction implements Function<Object, Object> {
+public class RoutingFunction implements Function<Object, Object>, ApplicationListener<FunctionCatalogEvent> {
 
 	/**
 	 * The name of this function use by BeanFactory.
 	 */
 	public static final String FUNCTION_NAME = "functionRouter";
 
+	private static final int EXPRESSION_CACHE_LIMIT = 256;
+
+	private static final int ROUTE_CACHE_LIMIT = 256;
+
 	private static Log logger = LogFactory.getLog(RoutingFunction.class);
 
 	private final StandardEvaluationContext evalContext = new StandardEvaluationContext();
 
 	private final SpelExpressionParser spelParser = new SpelExpressionParser();
 
+	/*
+	 * Used for the expression defined via 'spring.cloud.function.routing-expression' property
+	 * which is evaluated for every message and therefore benefits from being compiled.
+	 */
+	private final SpelExpressionParser compilingSpelParser = new SpelExpressionParser(
+			new SpelParserConfiguration(SpelCompilerMode.MIXED, RoutingFunction.class.getClassLoader()));
+
+	private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+	private final Map<String, Expression> compiledExpressions = new ConcurrentHashMap<>();
+
+	private final Map<String, FunctionInvocationWrapper> routes = new ConcurrentHashMap<>();
+
+	private final LongAdder expressionEvaluationCount = new LongAdder();
+
+	private final LongAdder expressionEvaluationTime = new LongAdder();
+
 	private final FunctionCatalog functionCatalog;
 
 	private final FunctionProperties functionProperties;
@@ -73,6 +107,28 @@ public class RoutingFunction implements Function<Object, Object> {
 		return this.route(input, input instanceof Publisher);
 	}
 
+	@Override
+	public void onApplicationEvent(FunctionCatalogEvent event) {
+		this.routes.clear();
+	}
+
+	/**
+	 * Returns the number of routing expression evaluations.
+	 * @return number of routing expression evaluations
+	 */
+	public long getExpressionEvaluationCount() {
+		return this.expressionEvaluationCount.sum();
+	}
+
+	/**
+	 * Returns the accumulated time spent evaluating routing expressions.
+	 * @param unit the time unit of the result
+	 * @return accumulated evaluation time
+	 */
+	public long getExpressionEvaluationTime(TimeUnit unit) {
+		return unit.convert(this.expressionEvaluationTime.sum(), TimeUnit.NANOSECONDS);
+	}
+
 	/*
 	 * - Check if spring.cloud.function.definition is set in header and if it is use it.
 	 * If NOT
@@ -93,13 +149,13 @@ public class RoutingFunction implements Function<Object, Object> {
 				}
 			}
 			else if (StringUtils.hasText((String) message.getHeaders().get("spring.cloud.function.routing-expression"))) {
-				function = this.functionFromExpression((String) message.getHeaders().get("spring.cloud.function.routing-expression"), message);
+				function = this.functionFromExpression((String) message.getHeaders().get("spring.cloud.function.routing-expression"), message, false);
 				if (function.isInputTypePublisher()) {
 					this.assertOriginalInputIsNotPublisher(originalInputIsPublisher);
 				}
 			}
 			else if (StringUtils.hasText(functionProperties.getRoutingExpression())) {
-				function = this.functionFromExpression(functionProperties.getRoutingExpression(), message);
+				function = this.functionFromExpression(functionProperties.getRoutingExpression(), message, true);
 			}
 			else if (StringUtils.hasText(functionProperties.getDefinition())) {
 				function = functionFromDefinition(functionProperties.getDefinition());
@@ -112,7 +168,7 @@ public class RoutingFunction implements Function<Object, Object> {
 		}
 		else if (input instanceof Publisher) {
 			if (StringUtils.hasText(functionProperties.getRoutingExpression())) {
-				function = this.functionFromExpression(functionProperties.getRoutingExpression(), input);
+				function = this.functionFromExpression(functionProperties.getRoutingExpression(), input, true);
 			}
 			else
 			if (StringUtils.hasText(functionProperties.getDefinition())) {
@@ -127,7 +183,7 @@ public class RoutingFunction implements Function<Object, Object> {
 		else {
 			this.assertOriginalInputIsNotPublisher(originalInputIsPublisher);
 			if (StringUtils.hasText(functionProperties.getRoutingExpression())) {
-				function = this.functionFromExpression(functionProperties.getRoutingExpression(), input);
+				function = this.functionFromExpression(functionProperties.getRoutingExpression(), input, true);
 			}
 			else
 			if (StringUtils.hasText(functionProperties.getDefinition())) {
@@ -150,25 +206,58 @@ public class RoutingFunction implements Function<Object, Object> {
 	}
 
 	private FunctionInvocationWrapper functionFromDefinition(String definition) {
-		FunctionInvocationWrapper function = functionCatalog.lookup(definition);
-		Assert.notNull(function, "Failed to lookup function to route based on the value of 'spring.cloud.function.definition' property '"
-				+ functionProperties.getDefinition() + "'");
-		if (logger.isInfoEnabled()) {
-			logger.info("Resolved function from provided [definition] property " + functionProperties.getDefinition());
+		FunctionInvocationWrapper function = this.routes.get(definition);
+		if (function == null) {
+			function = functionCatalog.lookup(definition);
+			Assert.notNull(function, "Failed to lookup function to route based on the value of 'spring.cloud.function.definition' property '"
+					+ functionProperties.getDefinition() + "'");
+			if (logger.isInfoEnabled()) {
+				logger.info("Resolved function from provided [definition] property " + functionProperties.getDefinition());
+			}
+			this.cacheRoute(definition, function);
 		}
 		return function;
 	}
 
-	private FunctionInvocationWrapper functionFromExpression(String routingExpression, Object input) {
-		Expression expression = spelParser.parseExpression(routingExpression);
+	private FunctionInvocationWrapper functionFromExpression(String routingExpression, Object input, boolean compile) {
+		Expression expression = this.getExpression(routingExpression, compile);
+		long start = System.nanoTime();
 		String functionName = expression.getValue(this.evalContext, input, String.class);
+		this.expressionEvaluationTime.add(System.nanoTime() - start);
+		this.expressionEvaluationCount.increment();
 		Assert.hasText(functionName, "Failed to resolve function name based on routing expression '" + functionProperties.getRoutingExpression() + "'");
-		FunctionInvocationWrapper function = functionCatalog.lookup(functionName);
-		Assert.notNull(function, "Failed to lookup function to route to based on the expression '"
-				+ functionProperties.getRoutingExpression() + "' whcih resolved to '" + functionName + "' function name.");
-		if (logger.isInfoEnabled()) {
-			logger.info("Resolved function from provided [routing-expression]  " + routingExpression);
+		FunctionInvocationWrapper function = this.routes.get(functionName);
+		if (function == null) {
+			function = functionCatalog.lookup(functionName);
+			Assert.notNull(function, "Failed to lookup function to route to based on the expression '"
+					+ functionProperties.getRoutingExpression() + "' whcih resolved to '" + functionName + "' function name.");
+			if (logger.isInfoEnabled()) {
+				logger.info("Resolved function from provided [routing-expression]  " + routingExpression);
+			}
+			this.cacheRoute(functionName, function);
 		}
 		return function;
 	}
+
+	private void cacheRoute(String definition, FunctionInvocationWrapper function) {
+		if (this.routes.size() < ROUTE_CACHE_LIMIT) {
+			this.routes.put(definition, function);
+		}
+	}
+
+	/*
+	 * Returns parsed expression from cache, parsing and caching it if necessary.
+	 * Caching stops once the limit is reached since header-provided expressions are unbounded.
+	 */
+	private Expression getExpression(String routingExpression, boolean compile) {
+		Map<String, Expression> cache = compile ? this.compiledExpressions : this.expressions;
+		Expression expression = cache.get(routingExpression);
+		if (expression == null) {
+			expression = (compile ? this.compilingSpelParser : this.spelParser).parseExpression(routingExpression);
+			if (cache.size() < EXPRESSION_CACHE_LIMIT) {
+				cache.put(routingExpression, expression);
+			}
+		}
+		return expression;
+	}
 }
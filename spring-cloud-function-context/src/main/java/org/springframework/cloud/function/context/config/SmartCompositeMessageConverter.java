@@ -16,8 +16,13 @@
 
 package org.springframework.cloud.function.context.config;
 
+import java.lang.ref.WeakReference;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
@@ -31,22 +36,91 @@ import org.springframework.util.CollectionUtils;
 import org.springframework.util.MimeType;
 
 /**
+ * Composite message converter which, in addition to delegating to its converters,
+ * attempts conversion using each of the supported mime types of a converter when the
+ * content type of a message is not concrete (e.g., {@code application/*}).
+ * <br><br>
+ * Since for the same payload class, content type, target type and conversion hint
+ * the winning converter is almost always the same, the winning converter (together with
+ * the mime type it was resolved with) is remembered in a bounded cache and tried first
+ * on subsequent conversions, falling back to the full scan of all converters if it does
+ * not produce a result. Since converters may decline based on the actual payload (not only
+ * on its class and content type), the winning converter is only remembered if none of the
+ * converters preceding it could have handled the content type, so the cache never changes
+ * which converter takes precedence.
+ * <br><br>
+ * Once the cache limit is reached, no new entries are added (and none are evicted), so
+ * conversions not seen before reaching the limit always result in the full scan. Classes
+ * (and conversion hints) are only weakly referenced by the cache, so it does not prevent
+ * class loaders (e.g., of undeployed function archives) from being garbage collected.
+ * Entries of collected classes are removed once the cache limit is reached.
  *
  * @author Oleg Zhurakousky
  *
  */
 public class SmartCompositeMessageConverter extends CompositeMessageConverter {
 
+	private static final int DEFAULT_CACHE_LIMIT = 256;
+
+	private final Map<ConversionKey, NegotiatedConverter> negotiatedConverters = new ConcurrentHashMap<>();
+
+	private final int cacheLimit;
+
+	private final LongAdder cacheHits = new LongAdder();
+
+	private final LongAdder cacheMisses = new LongAdder();
+
 	public SmartCompositeMessageConverter(Collection<MessageConverter> converters) {
+		this(converters, DEFAULT_CACHE_LIMIT);
+	}
+
+	/**
+	 * Creates an instance which remembers the winning converter for at most the given
+	 * number of distinct conversions.
+	 * @param converters converters to delegate to
+	 * @param cacheLimit maximum number of cached entries (no eviction happens once reached)
+	 */
+	public SmartCompositeMessageConverter(Collection<MessageConverter> converters, int cacheLimit) {
 		super(converters);
+		this.cacheLimit = cacheLimit;
+	}
+
+	/**
+	 * Returns the number of conversions which were performed by the cached converter.
+	 * @return number of cache hits
+	 */
+	public long getCacheHits() {
+		return this.cacheHits.sum();
+	}
+
+	/**
+	 * Returns the number of conversions which required the scan of all converters.
+	 * @return number of cache misses
+	 */
+	public long getCacheMisses() {
+		return this.cacheMisses.sum();
 	}
 
 	@Override
 	@Nullable
 	public Object fromMessage(Message<?> message, Class<?> targetClass) {
+		ConversionKey key = new ConversionKey(message.getPayload(), message.getHeaders(), targetClass, null);
+		NegotiatedConverter negotiated = this.negotiatedConverters.get(key);
+		if (negotiated != null) {
+			Object result = negotiated.converter.fromMessage(message, targetClass);
+			if (result != null) {
+				this.cacheHits.increment();
+				return result;
+			}
+		}
+		this.cacheMisses.increment();
 		for (MessageConverter converter : getConverters()) {
+			if (negotiated != null && converter == negotiated.converter) {
+				continue; // already declined this message
+			}
 			Object result = converter.fromMessage(message, targetClass);
 			if (result != null) {
+				this.cacheNegotiatedConverter(key, converter, null, this.getContentType(message.getHeaders()));
 				return result;
 			}
 		}
@@ -56,11 +130,23 @@ public class SmartCompositeMessageConverter extends CompositeMessageConverter {
 	@Override
 	@Nullable
 	public Object fromMessage(Message<?> message, Class<?> targetClass, @Nullable Object conversionHint) {
+		ConversionKey key = new ConversionKey(message.getPayload(), message.getHeaders(), targetClass, conversionHint);
+		NegotiatedConverter negotiated = this.negotiatedConverters.get(key);
+		if (negotiated != null) {
+			Object result = this.doFromMessage(negotiated.converter, message, targetClass, conversionHint);
+			if (result != null) {
+				this.cacheHits.increment();
+				return result;
+			}
+		}
+		this.cacheMisses.increment();
 		for (MessageConverter converter : getConverters()) {
-			Object result = (converter instanceof SmartMessageConverter ?
-					((SmartMessageConverter) converter).fromMessage(message, targetClass, conversionHint) :
-					converter.fromMessage(message, targetClass));
+			if (negotiated != null && converter == negotiated.converter) {
+				continue; // already declined this message
+			}
+			Object result = this.doFromMessage(converter, message, targetClass, conversionHint);
 			if (result != null) {
+				this.cacheNegotiatedConverter(key, converter, null, this.getContentType(message.getHeaders()));
 				return result;
 			}
 		}
@@ -70,22 +156,53 @@ public class SmartCompositeMessageConverter extends CompositeMessageConverter {
 	@Override
 	@Nullable
 	public Message<?> toMessage(Object payload, @Nullable MessageHeaders headers) {
+		return this.toMessage(payload, headers, null, false);
+	}
+
+	@Override
+	@Nullable
+	public Message<?> toMessage(Object payload, @Nullable MessageHeaders headers, @Nullable Object conversionHint) {
+		return this.toMessage(payload, headers, conversionHint, true);
+	}
+
+	@Nullable
+	private Message<?> toMessage(Object payload, @Nullable MessageHeaders headers, @Nullable Object conversionHint, boolean hinted) {
+		ConversionKey key = new ConversionKey(payload, headers, null, conversionHint);
+		NegotiatedConverter negotiated = this.negotiatedConverters.get(key);
+		if (negotiated != null) {
+			Message<?> result = this.doToMessage(negotiated.converter, payload, negotiated.mimeType == null
+					? headers
+					: this.withContentType(headers, negotiated.mimeType), conversionHint, hinted);
+			if (result != null) {
+				this.cacheHits.increment();
+				return result;
+			}
+		}
+		this.cacheMisses.increment();
+
+		MimeType contentType = this.getContentType(headers);
 		for (MessageConverter converter : getConverters()) {
-			MessageHeaderAccessor accessor = new MessageHeaderAccessor();
-			accessor.copyHeaders(headers);
-			if (this.isNotConcreteContentType(accessor, converter)) {
+			if (this.isNotConcreteContentType(contentType, converter)) {
+				MessageHeaderAccessor accessor = new MessageHeaderAccessor();
+				accessor.copyHeaders(headers);
 				List<MimeType> supportedMimeTypes = ((AbstractMessageConverter) converter).getSupportedMimeTypes();
 				for (MimeType supportedMimeType : supportedMimeTypes) {
+					if (negotiated != null && converter == negotiated.converter
+							&& supportedMimeType.equals(negotiated.mimeType)) {
+						continue; // already declined this payload
+					}
 					accessor.setHeader(MessageHeaders.CONTENT_TYPE, supportedMimeType);
-					Message<?> result = converter.toMessage(payload, accessor.getMessageHeaders());
+					Message<?> result = this.doToMessage(converter, payload, accessor.getMessageHeaders(), conversionHint, hinted);
 					if (result != null) {
+						this.cacheNegotiatedConverter(key, converter, supportedMimeType, contentType);
 						return result;
 					}
 				}
 			}
-			else {
-				Message<?> result = converter.toMessage(payload, headers);
+			else if (negotiated == null || converter != negotiated.converter || negotiated.mimeType != null) {
+				Message<?> result = this.doToMessage(converter, payload, headers, conversionHint, hinted);
 				if (result != null) {
+					this.cacheNegotiatedConverter(key, converter, null, contentType);
 					return result;
 				}
 			}
@@ -93,35 +210,249 @@ public class SmartCompositeMessageConverter extends CompositeMessageConverter {
 		return null;
 	}
 
-	@Override
 	@Nullable
-	public Message<?> toMessage(Object payload, @Nullable MessageHeaders headers, @Nullable Object conversionHint) {
+	private Object doFromMessage(MessageConverter converter, Message<?> message, Class<?> targetClass, @Nullable Object conversionHint) {
+		return converter instanceof SmartMessageConverter
+				? ((SmartMessageConverter) converter).fromMessage(message, targetClass, conversionHint)
+				: converter.fromMessage(message, targetClass);
+	}
+
+	@Nullable
+	private Message<?> doToMessage(MessageConverter converter, Object payload, @Nullable MessageHeaders headers,
+			@Nullable Object conversionHint, boolean hinted) {
+		return hinted
+				? ((AbstractMessageConverter) converter).toMessage(payload, headers, conversionHint)
+				: converter.toMessage(payload, headers);
+	}
 
+	private MessageHeaders withContentType(@Nullable MessageHeaders headers, MimeType contentType) {
+		MessageHeaderAccessor accessor = new MessageHeaderAccessor();
+		accessor.copyHeaders(headers);
+		accessor.setHeader(MessageHeaders.CONTENT_TYPE, contentType);
+		return accessor.getMessageHeaders();
+	}
+
+	/*
+	 * Remembers the winning converter unless the cache limit has been reached or one of
+	 * the preceding converters could have handled the content type (and only declined
+	 * because of the actual payload), in which case it must keep its precedence.
+	 */
+	private void cacheNegotiatedConverter(ConversionKey key, MessageConverter converter, @Nullable MimeType mimeType,
+			@Nullable MimeType contentType) {
+		if (this.isPrecededByCandidate(converter, contentType)) {
+			return;
+		}
+		if (this.negotiatedConverters.size() >= this.cacheLimit) {
+			this.negotiatedConverters.keySet().removeIf(ConversionKey::isStale);
+		}
+		if (this.negotiatedConverters.size() < this.cacheLimit) {
+			this.negotiatedConverters.put(key.weak(), new NegotiatedConverter(converter, mimeType));
+		}
+	}
+
+	private boolean isPrecededByCandidate(MessageConverter winningConverter, @Nullable MimeType contentType) {
 		for (MessageConverter converter : getConverters()) {
-			MessageHeaderAccessor accessor = new MessageHeaderAccessor();
-			accessor.copyHeaders(headers);
-			if (this.isNotConcreteContentType(accessor, converter)) {
-				List<MimeType> supportedMimeTypes = ((AbstractMessageConverter) converter).getSupportedMimeTypes();
-				for (MimeType supportedMimeType : supportedMimeTypes) {
-					accessor.setHeader(MessageHeaders.CONTENT_TYPE, supportedMimeType);
-					Message<?> result = ((AbstractMessageConverter) converter).toMessage(payload, accessor.getMessageHeaders(), conversionHint);
-					if (result != null) {
-						return result;
-					}
-				}
+			if (converter == winningConverter) {
+				return false;
 			}
-			else {
-				Message<?> result = ((AbstractMessageConverter) converter).toMessage(payload, headers, conversionHint);
-				if (result != null) {
-					return result;
-				}
+			if (this.isCandidate(converter, contentType)) {
+				return true;
 			}
 		}
-		return null;
+		return false;
 	}
 
-	private boolean isNotConcreteContentType(MessageHeaderAccessor accessor, MessageConverter converter) {
-		return !accessor.getContentType().isConcrete() && converter instanceof AbstractMessageConverter
+	/*
+	 * Conservative version of AbstractMessageConverter.supportsMimeType(..), since the
+	 * actual check may be customized.
+	 */
+	private boolean isCandidate(MessageConverter converter, @Nullable MimeType contentType) {
+		if (!(converter instanceof AbstractMessageConverter)) {
+			return true;
+		}
+		AbstractMessageConverter abstractConverter = (AbstractMessageConverter) converter;
+		if (CollectionUtils.isEmpty(abstractConverter.getSupportedMimeTypes())) {
+			return true;
+		}
+		if (contentType == null) {
+			return !abstractConverter.isStrictContentTypeMatch();
+		}
+		if (!contentType.isConcrete()) {
+			return true;
+		}
+		for (MimeType supportedMimeType : abstractConverter.getSupportedMimeTypes()) {
+			if (supportedMimeType.isCompatibleWith(contentType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Nullable
+	private MimeType getContentType(@Nullable MessageHeaders headers) {
+		Object value = headers == null ? null : headers.get(MessageHeaders.CONTENT_TYPE);
+		if (value instanceof MimeType) {
+			return (MimeType) value;
+		}
+		return value == null ? null : MimeType.valueOf(value.toString());
+	}
+
+	private boolean isNotConcreteContentType(@Nullable MimeType contentType, MessageConverter converter) {
+		return contentType != null && !contentType.isConcrete() && converter instanceof AbstractMessageConverter
 				&& !CollectionUtils.isEmpty(((AbstractMessageConverter) converter).getSupportedMimeTypes());
 	}
+
+	/*
+	 * Identifies a conversion by payload class, content type, target class and conversion hint.
+	 * Keys used for lookups reference them strongly, keys stored in the cache weakly (see weak()),
+	 * so lookups do not allocate references and the cache does not pin classes.
+	 */
+	private static class ConversionKey {
+
+		private final Class<?> payloadClass;
+
+		private final Object contentType;
+
+		private final Class<?> targetClass;
+
+		private final Object conversionHint;
+
+		private final int hashCode;
+
+		ConversionKey(Object payload, @Nullable MessageHeaders headers, @Nullable Class<?> targetClass, @Nullable Object conversionHint) {
+			this.payloadClass = payload == null ? null : payload.getClass();
+			this.contentType = headers == null ? null : headers.get(MessageHeaders.CONTENT_TYPE);
+			this.targetClass = targetClass;
+			this.conversionHint = conversionHint;
+			this.hashCode = Objects.hash(this.payloadClass, this.contentType, this.targetClass, this.conversionHint);
+		}
+
+		private ConversionKey(@Nullable Object contentType, int hashCode) {
+			this.payloadClass = null;
+			this.contentType = contentType;
+			this.targetClass = null;
+			this.conversionHint = null;
+			this.hashCode = hashCode;
+		}
+
+		/*
+		 * Copy of this key to be stored in the cache.
+		 */
+		ConversionKey weak() {
+			return new WeakConversionKey(this);
+		}
+
+		/*
+		 * Whether any of the weakly referenced values has been garbage collected.
+		 */
+		boolean isStale() {
+			return false;
+		}
+
+		Class<?> getPayloadClass() {
+			return this.payloadClass;
+		}
+
+		Object getContentType() {
+			return this.contentType;
+		}
+
+		Class<?> getTargetClass() {
+			return this.targetClass;
+		}
+
+		Object getConversionHint() {
+			return this.conversionHint;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ConversionKey)) {
+				return false;
+			}
+			ConversionKey otherKey = (ConversionKey) other;
+			return this.hashCode == otherKey.hashCode
+					&& !this.isStale() && !otherKey.isStale()
+					&& this.getPayloadClass() == otherKey.getPayloadClass()
+					&& this.getTargetClass() == otherKey.getTargetClass()
+					&& Objects.equals(this.getContentType(), otherKey.getContentType())
+					&& Objects.equals(this.getConversionHint(), otherKey.getConversionHint());
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+	private static final class WeakConversionKey extends ConversionKey {
+
+		private final WeakReference<Class<?>> payloadClassReference;
+
+		private final WeakReference<Class<?>> targetClassReference;
+
+		private final WeakReference<Object> conversionHintReference;
+
+		WeakConversionKey(ConversionKey key) {
+			super(key.getContentType(), key.hashCode());
+			this.payloadClassReference = reference(key.getPayloadClass());
+			this.targetClassReference = reference(key.getTargetClass());
+			this.conversionHintReference = reference(key.getConversionHint());
+		}
+
+		@Nullable
+		private static <T> WeakReference<T> reference(@Nullable T value) {
+			return value == null ? null : new WeakReference<>(value);
+		}
+
+		@Nullable
+		private static <T> T get(@Nullable WeakReference<T> reference) {
+			return reference == null ? null : reference.get();
+		}
+
+		private static boolean isCleared(@Nullable WeakReference<?> reference) {
+			return reference != null && reference.get() == null;
+		}
+
+		@Override
+		ConversionKey weak() {
+			return this;
+		}
+
+		@Override
+		boolean isStale() {
+			return isCleared(this.payloadClassReference) || isCleared(this.targetClassReference)
+					|| isCleared(this.conversionHintReference);
+		}
+
+		@Override
+		Class<?> getPayloadClass() {
+			return get(this.payloadClassReference);
+		}
+
+		@Override
+		Class<?> getTargetClass() {
+			return get(this.targetClassReference);
+		}
+
+		@Override
+		Object getConversionHint() {
+			return get(this.conversionHintReference);
+		}
+	}
+
+	private static final class NegotiatedConverter {
+
+		private final MessageConverter converter;
+
+		private final MimeType mimeType;
+
+		NegotiatedConverter(MessageConverter converter, @Nullable MimeType mimeType) {
+			this.converter = converter;
+			this.mimeType = mimeType;
+		}
+	}
 }
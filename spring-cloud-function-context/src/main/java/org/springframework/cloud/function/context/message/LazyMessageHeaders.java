@@ -0,0 +1,255 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.function.context.message;
+
+import java.lang.reflect.Constructor;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Implementation of {@link MessageHeaders} used by the framework when it needs to create
+ * a new message from an existing one (e.g., after payload conversion), which is meant to
+ * be used with {@link org.springframework.messaging.support.GenericMessage#GenericMessage(Object, MessageHeaders)}.
+ * <br><br>
+ * Unlike standard {@link MessageHeaders} it does not copy the headers of the parent message.
+ * Instead it shares them (they are immutable) and only keeps its own headers, which take
+ * precedence over the ones of the parent. Also, the {@link #ID} header is only generated
+ * when it is first requested.
+ * <br><br>
+ * Instances are serialized as standard {@link MessageHeaders} (preserving {@link #ID} and
+ * {@link #TIMESTAMP}), so they can be deserialized without this class being present.
+ * Instances are only equal to other instances of this class (with the same headers),
+ * since standard {@link MessageHeaders} only compare the headers they hold themselves.
+ *
+ * @author Oleg Zhurakousky
+ * @since 3.1
+ */
+public final class LazyMessageHeaders extends MessageHeaders {
+
+	private static final long serialVersionUID = -6335235618962390364L;
+
+	private static final Constructor<MessageHeaders> MESSAGE_HEADERS_CONSTRUCTOR = messageHeadersConstructor();
+
+	private final transient Map<String, Object> parent;
+
+	private final long timestamp;
+
+	private transient volatile UUID id;
+
+	private LazyMessageHeaders(Map<String, Object> parent, @Nullable Map<String, Object> headers) {
+		super(headers, ID_VALUE_NONE, -1L);
+		// same as MessageBuilder, which does not retain headers with 'null' values
+		this.getRawHeaders().values().removeIf(Objects::isNull);
+		this.parent = parent;
+		this.timestamp = System.currentTimeMillis();
+	}
+
+	/**
+	 * Creates headers of a new message which inherits all headers of the parent (except
+	 * {@link #ID} and {@link #TIMESTAMP}) as well as provided headers which take precedence.
+	 * Parent is shared (not copied) if it is an instance of {@link MessageHeaders}.
+	 * @param parent parent headers (can be null)
+	 * @param headers additional headers (can be null)
+	 * @return new instance of {@link MessageHeaders}
+	 */
+	@SuppressWarnings("unchecked")
+	public static MessageHeaders of(@Nullable Map<String, ?> parent, @Nullable Map<String, ?> headers) {
+		Map<String, Object> sharedParent = Collections.emptyMap();
+		Map<String, Object> ownHeaders = (Map<String, Object>) headers;
+		if (parent instanceof LazyMessageHeaders) {
+			LazyMessageHeaders lazyParent = (LazyMessageHeaders) parent;
+			sharedParent = lazyParent.parent;
+			if (!lazyParent.getRawHeaders().isEmpty()) {
+				ownHeaders = new HashMap<>(lazyParent.getRawHeaders());
+				if (headers != null) {
+					ownHeaders.putAll(headers);
+				}
+			}
+		}
+		else if (parent instanceof MessageHeaders) {
+			sharedParent = (Map<String, Object>) parent;
+		}
+		else if (parent != null && !parent.isEmpty()) {
+			ownHeaders = new HashMap<>(parent);
+			if (headers != null) {
+				ownHeaders.putAll(headers);
+			}
+		}
+		return new LazyMessageHeaders(sharedParent, ownHeaders);
+	}
+
+	/**
+	 * Shortcut for {@code of(parent, null)}.
+	 * @param parent parent headers (can be null)
+	 * @return new instance of {@link MessageHeaders}
+	 */
+	public static MessageHeaders of(@Nullable Map<String, ?> parent) {
+		return of(parent, null);
+	}
+
+	@Override
+	public UUID getId() {
+		UUID id = this.id;
+		if (id == null) {
+			synchronized (this) {
+				id = this.id;
+				if (id == null) {
+					id = getIdGenerator().generateId();
+					this.id = id;
+				}
+			}
+		}
+		return id;
+	}
+
+	@Override
+	public Long getTimestamp() {
+		return this.timestamp;
+	}
+
+	@Override
+	public Object getReplyChannel() {
+		return this.get(REPLY_CHANNEL);
+	}
+
+	@Override
+	public Object getErrorChannel() {
+		return this.get(ERROR_CHANNEL);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	@Nullable
+	public <T> T get(Object key, Class<T> type) {
+		Object value = this.get(key);
+		if (value == null) {
+			return null;
+		}
+		if (!type.isAssignableFrom(value.getClass())) {
+			throw new IllegalArgumentException("Incorrect type specified for header '" +
+					key + "'. Expected [" + type + "] but actual type is [" + value.getClass() + "]");
+		}
+		return (T) value;
+	}
+
+	/*
+	 * Own headers are looked up first, since they may have also been modified
+	 * in place (see SimpleFunctionRegistry).
+	 */
+	@Override
+	public Object get(Object key) {
+		if (ID.equals(key)) {
+			return this.getId();
+		}
+		else if (TIMESTAMP.equals(key)) {
+			return this.getTimestamp();
+		}
+		Map<String, Object> headers = this.getRawHeaders();
+		Object value = headers.get(key);
+		return value != null || headers.containsKey(key) ? value : this.parent.get(key);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return ID.equals(key) || TIMESTAMP.equals(key) || this.getRawHeaders().containsKey(key) || this.parent.containsKey(key);
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		return this.toMap().containsValue(value);
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		return Collections.unmodifiableMap(this.toMap()).entrySet();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return false;
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return Collections.unmodifiableSet(this.toMap().keySet());
+	}
+
+	@Override
+	public int size() {
+		return this.toMap().size();
+	}
+
+	@Override
+	public Collection<Object> values() {
+		return Collections.unmodifiableCollection(this.toMap().values());
+	}
+
+	@Override
+	public boolean equals(@Nullable Object other) {
+		return this == other || (other instanceof LazyMessageHeaders
+				&& this.toMap().equals(((LazyMessageHeaders) other).toMap()));
+	}
+
+	@Override
+	public int hashCode() {
+		return this.toMap().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return this.toMap().toString();
+	}
+
+	/*
+	 * Materializes all headers (including ID and TIMESTAMP) into a new map.
+	 */
+	private Map<String, Object> toMap() {
+		Map<String, Object> headers = new HashMap<>(this.parent);
+		headers.putAll(this.getRawHeaders());
+		headers.put(ID, this.getId());
+		headers.put(TIMESTAMP, this.getTimestamp());
+		return headers;
+	}
+
+	private Object writeReplace() {
+		return BeanUtils.instantiateClass(MESSAGE_HEADERS_CONSTRUCTOR, this.toMap(), this.getId(), this.getTimestamp());
+	}
+
+	/*
+	 * The only constructor of MessageHeaders which preserves provided ID and TIMESTAMP
+	 * is protected.
+	 */
+	private static Constructor<MessageHeaders> messageHeadersConstructor() {
+		try {
+			return ReflectionUtils.accessibleConstructor(MessageHeaders.class, Map.class, UUID.class, Long.class);
+		}
+		catch (NoSuchMethodException e) {
+			throw new IllegalStateException("Failed to resolve constructor of MessageHeaders", e);
+		}
+	}
+
+}
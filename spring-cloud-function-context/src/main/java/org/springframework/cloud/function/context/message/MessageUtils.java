@@ -24,6 +24,7 @@ import java.util.Map;
 import org.springframework.cloud.function.core.FluxWrapper;
 import org.springframework.cloud.function.core.Isolated;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
@@ -49,14 +50,17 @@ public abstract class MessageUtils {
 		if (handler instanceof FluxWrapper) {
 			handler = ((FluxWrapper<?>) handler).getTarget();
 		}
+		if (!(handler instanceof Isolated)) {
+			return payload instanceof Message
+					? new GenericMessage<>(((Message<?>) payload).getPayload(),
+							LazyMessageHeaders.of(headers, ((Message<?>) payload).getHeaders()))
+					: new GenericMessage<>(payload, LazyMessageHeaders.of(headers));
+		}
 		if (payload instanceof Message) {
 			headers = new HashMap<>(headers);
 			headers.putAll(((Message<?>) payload).getHeaders());
 			payload = ((Message<?>) payload).getPayload();
 		}
-		if (!(handler instanceof Isolated)) {
-			return MessageBuilder.withPayload(payload).copyHeaders(headers).build();
-		}
 		ClassLoader classLoader = ((Isolated) handler).getClassLoader();
 		Class<?> builder = ClassUtils.resolveClassName(MessageBuilder.class.getName(),
 				classLoader);
@@ -85,7 +89,7 @@ public abstract class MessageUtils {
 			if (message instanceof Message) {
 				return (Message<?>) message;
 			}
-			return MessageBuilder.withPayload(message).build();
+			return new GenericMessage<>(message, LazyMessageHeaders.of(null));
 		}
 		ClassLoader classLoader = ((Isolated) handler).getClassLoader();
 		Class<?> type = ClassUtils.isPresent(Message.class.getName(), classLoader)
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.function.context.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.function.context.FunctionProperties;
+import org.springframework.cloud.function.context.catalog.FunctionAroundWrapper;
+import org.springframework.cloud.function.context.config.ContextFunctionCatalogAutoConfiguration;
+import org.springframework.cloud.function.context.config.RoutingFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables Micrometer instrumentation of function invocations when
+ * 'spring.cloud.function.metrics.enabled' is set to 'true'. Meters are registered with
+ * the {@link MeterRegistry} bean if available, otherwise with {@link Metrics#globalRegistry}.
+ * When disabled (default) function invocations are not wrapped at all.
+ *
+ * @author Oleg Zhurakousky
+ * @since 3.1
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnProperty(prefix = FunctionProperties.PREFIX + ".metrics", name = "enabled", havingValue = "true")
+@AutoConfigureAfter(ContextFunctionCatalogAutoConfiguration.class)
+public class FunctionMetricsAutoConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean(FunctionAroundWrapper.class)
+	public MicrometerFunctionAroundWrapper micrometerFunctionAroundWrapper(ObjectProvider<MeterRegistry> meterRegistry) {
+		return new MicrometerFunctionAroundWrapper(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+	}
+
+	/*
+	 * MeterBinder beans are bound by Spring Boot metrics auto-configuration, so binding
+	 * only needs to happen here when there is no MeterRegistry bean.
+	 */
+	@Bean
+	@ConditionalOnBean(RoutingFunction.class)
+	public RoutingFunctionMetrics routingFunctionMetrics(RoutingFunction routingFunction,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		RoutingFunctionMetrics routingFunctionMetrics = new RoutingFunctionMetrics(routingFunction);
+		if (meterRegistry.getIfAvailable() == null) {
+			routingFunctionMetrics.bindTo(Metrics.globalRegistry);
+		}
+		return routingFunctionMetrics;
+	}
+
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.function.context.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.function.context.catalog.FunctionAroundWrapper;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+
+/**
+ * Implementation of {@link FunctionAroundWrapper} which records Micrometer metrics
+ * for each function definition (tagged as 'function'):
+ * <ul>
+ * <li>{@value #INVOCATION} - timer of invocations of imperative functions (with percentiles)</li>
+ * <li>{@value #SUBSCRIPTION} - timer of subscriptions to the output of reactive functions
+ * (from subscription until termination or cancellation)</li>
+ * <li>{@value #ELEMENT} - timer of elements emitted by reactive functions (time since
+ * subscription or previous element)</li>
+ * <li>{@value #ERRORS} - counter of failed invocations (or subscriptions)</li>
+ * <li>{@value #CONVERSION} - timer of input and output conversion (tagged as 'direction')</li>
+ * <li>{@value #SCHEDULING} - timer of the time elements of Publisher input wait for the scheduler
+ * the function is invoked on (only for functions with execution mode other than event loop)</li>
+ * </ul>
+ *
+ * @author Oleg Zhurakousky
+ * @since 3.1
+ */
+public class MicrometerFunctionAroundWrapper extends FunctionAroundWrapper {
+
+	/**
+	 * Name of the invocation timer.
+	 */
+	public static final String INVOCATION = "spring.cloud.function.invocation";
+
+	/**
+	 * Name of the subscription timer.
+	 */
+	public static final String SUBSCRIPTION = "spring.cloud.function.subscription";
+
+	/**
+	 * Name of the element timer.
+	 */
+	public static final String ELEMENT = "spring.cloud.function.element";
+
+	/**
+	 * Name of the error counter.
+	 */
+	public static final String ERRORS = "spring.cloud.function.errors";
+
+	/**
+	 * Name of the conversion timer.
+	 */
+	public static final String CONVERSION = "spring.cloud.function.conversion";
+
+	/**
+	 * Name of the execution scheduler queueing timer.
+	 */
+	public static final String SCHEDULING = "spring.cloud.function.scheduling";
+
+	private final MeterRegistry meterRegistry;
+
+	private final Map<String, FunctionMeters> meters = new ConcurrentHashMap<>();
+
+	public MicrometerFunctionAroundWrapper(MeterRegistry meterRegistry) {
+		Assert.notNull(meterRegistry, "'meterRegistry' must not be null");
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	protected Object doApply(Message<byte[]> input, FunctionInvocationWrapper targetFunction) {
+		return this.invoke(input, targetFunction);
+	}
+
+	@Override
+	protected Object doApplyPayload(Object input, FunctionInvocationWrapper targetFunction) {
+		return this.invoke(input, targetFunction);
+	}
+
+	@Override
+	protected void onInputConversion(FunctionInvocationWrapper targetFunction, long nanos) {
+		this.getMeters(targetFunction).inputConversion.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	protected void onOutputConversion(FunctionInvocationWrapper targetFunction, long nanos) {
+		this.getMeters(targetFunction).outputConversion.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	protected void onExecutionScheduled(FunctionInvocationWrapper targetFunction, long nanos) {
+		this.getMeters(targetFunction).getScheduling().record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	private Object invoke(Object input, FunctionInvocationWrapper targetFunction) {
+		FunctionMeters functionMeters = this.getMeters(targetFunction);
+		long start = System.nanoTime();
+		Object result;
+		try {
+			result = targetFunction.apply(input);
+		}
+		catch (RuntimeException e) {
+			functionMeters.errors.increment();
+			functionMeters.invocation.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			throw e;
+		}
+		if (result instanceof Publisher) {
+			return this.instrument((Publisher<?>) result, functionMeters);
+		}
+		functionMeters.invocation.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		return result;
+	}
+
+	/*
+	 * Each subscription gets its own state, so the same Publisher can be subscribed to
+	 * multiple times.
+	 */
+	private Publisher<?> instrument(Publisher<?> publisher, FunctionMeters functionMeters) {
+		return publisher instanceof Mono
+				? Mono.defer(() -> {
+					SubscriptionTimer subscriptionTimer = new SubscriptionTimer(functionMeters);
+					return Mono.from(publisher)
+							.doOnNext(subscriptionTimer::onNext)
+							.doOnError(e -> functionMeters.errors.increment())
+							.doFinally(signal -> subscriptionTimer.onFinally());
+				})
+				: Flux.defer(() -> {
+					SubscriptionTimer subscriptionTimer = new SubscriptionTimer(functionMeters);
+					return Flux.from(publisher)
+							.doOnNext(subscriptionTimer::onNext)
+							.doOnError(e -> functionMeters.errors.increment())
+							.doFinally(signal -> subscriptionTimer.onFinally());
+				});
+	}
+
+	private FunctionMeters getMeters(FunctionInvocationWrapper targetFunction) {
+		String functionDefinition = targetFunction.getFunctionDefinition();
+		FunctionMeters functionMeters = this.meters.get(functionDefinition);
+		if (functionMeters == null) {
+			functionMeters = this.meters.computeIfAbsent(functionDefinition,
+					definition -> new FunctionMeters(this.meterRegistry, definition));
+		}
+		return functionMeters;
+	}
+
+	/*
+	 * Meters of a single function definition, so they are only looked up once.
+	 */
+	private static final class FunctionMeters {
+
+		private final Timer invocation;
+
+		private final Timer subscription;
+
+		private final Timer element;
+
+		private final Counter errors;
+
+		private final Timer inputConversion;
+
+		private final Timer outputConversion;
+
+		private final MeterRegistry meterRegistry;
+
+		private final String functionDefinition;
+
+		/*
+		 * Created on first use, since most functions are never offloaded to another scheduler.
+		 */
+		private volatile Timer scheduling;
+
+		FunctionMeters(MeterRegistry meterRegistry, String functionDefinition) {
+			this.meterRegistry = meterRegistry;
+			this.functionDefinition = functionDefinition;
+			this.invocation = Timer.builder(INVOCATION)
+					.description("Invocations of a function")
+					.tag("function", functionDefinition)
+					.publishPercentiles(0.5, 0.95, 0.99)
+					.publishPercentileHistogram()
+					.register(meterRegistry);
+			this.subscription = Timer.builder(SUBSCRIPTION)
+					.description("Subscriptions to the output of a reactive function")
+					.tag("function", functionDefinition)
+					.publishPercentiles(0.5, 0.95, 0.99)
+					.register(meterRegistry);
+			this.element = Timer.builder(ELEMENT)
+					.description("Elements emitted by a reactive function")
+					.tag("function", functionDefinition)
+					.publishPercentiles(0.5, 0.95, 0.99)
+					.register(meterRegistry);
+			this.errors = Counter.builder(ERRORS)
+					.description("Failed invocations of a function")
+					.tag("function", functionDefinition)
+					.register(meterRegistry);
+			this.inputConversion = Timer.builder(CONVERSION)
+					.description("Conversion of input or output of a function")
+					.tag("function", functionDefinition)
+					.tag("direction", "input")
+					.register(meterRegistry);
+			this.outputConversion = Timer.builder(CONVERSION)
+					.description("Conversion of input or output of a function")
+					.tag("function", functionDefinition)
+					.tag("direction", "output")
+					.register(meterRegistry);
+		}
+
+		Timer getScheduling() {
+			Timer timer = this.scheduling;
+			if (timer == null) {
+				// registration is idempotent, so a race merely looks up the same timer
+				timer = Timer.builder(SCHEDULING)
+						.description("Time elements of Publisher input wait for the scheduler a function is invoked on")
+						.tag("function", this.functionDefinition)
+						.publishPercentiles(0.5, 0.95, 0.99)
+						.register(this.meterRegistry);
+				this.scheduling = timer;
+			}
+			return timer;
+		}
+	}
+
+	/*
+	 * State of a single subscription. Signals are serialized, so no synchronization is needed.
+	 */
+	private static final class SubscriptionTimer {
+
+		private final FunctionMeters functionMeters;
+
+		private final long start;
+
+		private long last;
+
+		SubscriptionTimer(FunctionMeters functionMeters) {
+			this.functionMeters = functionMeters;
+			this.start = System.nanoTime();
+			this.last = this.start;
+		}
+
+		void onNext(Object value) {
+			long now = System.nanoTime();
+			this.functionMeters.element.record(now - this.last, TimeUnit.NANOSECONDS);
+			this.last = now;
+		}
+
+		void onFinally() {
+			this.functionMeters.subscription.record(System.nanoTime() - this.start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.function.context.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.cloud.function.context.config.RoutingFunction;
+
+/**
+ * {@link MeterBinder} which exposes the time {@link RoutingFunction} spends evaluating
+ * routing expressions as {@value #ROUTING} timer. Since the values are read from the
+ * counters maintained by {@link RoutingFunction}, routing itself is not affected.
+ *
+ * @author Oleg Zhurakousky
+ * @since 3.1
+ */
+public class RoutingFunctionMetrics implements MeterBinder {
+
+	/**
+	 * Name of the routing expression evaluation timer.
+	 */
+	public static final String ROUTING = "spring.cloud.function.routing";
+
+	private final RoutingFunction routingFunction;
+
+	public RoutingFunctionMetrics(RoutingFunction routingFunction) {
+		this.routingFunction = routingFunction;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionTimer.builder(ROUTING, this.routingFunction,
+				RoutingFunction::getExpressionEvaluationCount,
+				function -> function.getExpressionEvaluationTime(TimeUnit.NANOSECONDS),
+				TimeUnit.NANOSECONDS)
+				.description("Evaluation of routing expressions by RoutingFunction")
+				.register(registry);
+	}
+
+}
@@ -16,21 +16,49 @@
 
 package org.springframework.cloud.function.json;
 
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import reactor.core.publisher.Flux;
+
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 /**
+ * Implementation of {@link JsonMapper} backed by {@link Gson}.
+ * <br><br>
+ * {@link TypeAdapter}s are resolved once per target type and cached in a bounded map.
+ *
  * @author Dave Syer
  * @author Oleg Zhurakousky
  */
 public class GsonMapper extends JsonMapper {
 
+	private static final int CACHE_LIMIT = 256;
+
 	private final Gson gson;
 
+	private final Map<Type, TypeAdapter<?>> typeAdapters = new ConcurrentReferenceHashMap<>();
+
 	public GsonMapper(Gson gson) {
 		this.gson = gson;
 	}
@@ -47,20 +75,60 @@ public class GsonMapper extends JsonMapper {
 
 	@Override
 	public <T> T fromJson(Object json, Type type) {
-		T convertedValue = null;
-		if (json instanceof byte[]) {
-			convertedValue = this.gson.fromJson(new String(((byte[]) json), StandardCharsets.UTF_8), type);
-		}
-		else if (json instanceof String) {
-			convertedValue = this.gson.fromJson((String) json, type);
-		}
-		else if (json instanceof Reader) {
-			convertedValue = this.gson.fromJson((Reader) json, type);
-		}
-		else if (json instanceof JsonElement) {
-			convertedValue = this.gson.fromJson((JsonElement) json, type);
+		if (json instanceof JsonElement) {
+			return this.gson.fromJson((JsonElement) json, type);
 		}
-		return convertedValue;
+		Reader reader = this.toReader(json);
+		return reader == null ? null : this.read(reader, type);
+	}
+
+	/**
+	 * Parses JSON array incrementally using Gson's streaming {@link JsonReader}, converting
+	 * the next element only when it is requested by the subscriber.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> Flux<T> fromJsonArray(Object json, Type elementType) {
+		TypeAdapter<T> typeAdapter = (TypeAdapter<T>) this.getTypeAdapter(elementType);
+		return Flux.generate(() -> {
+			Reader source = this.toReader(json);
+			if (source == null) {
+				throw new IllegalArgumentException("Unsupported JSON input type: " + (json == null ? null : json.getClass()));
+			}
+			JsonReader reader = this.gson.newJsonReader(source);
+			reader.setLenient(true);
+			try {
+				reader.beginArray();
+			}
+			catch (IllegalStateException e) {
+				reader.close();
+				throw new IllegalArgumentException("Failed to convert. JSON input is not an array: " + json, e);
+			}
+			return reader;
+		}, (reader, sink) -> {
+			try {
+				while (reader.hasNext()) {
+					T value = typeAdapter.read(reader);
+					if (value != null) {
+						sink.next(value);
+						return reader;
+					}
+				}
+				reader.endArray();
+				sink.complete();
+			}
+			catch (Exception e) {
+				sink.error(new JsonSyntaxException(e));
+			}
+			return reader;
+		}, reader -> {
+			try {
+				reader.close();
+			}
+			catch (IOException e) {
+				// ignore
+			}
+		});
 	}
 
 	@Override
@@ -72,4 +140,93 @@ public class GsonMapper extends JsonMapper {
 		return jsonBytes;
 	}
 
+	@Override
+	public void toJson(Object value, OutputStream outputStream) throws IOException {
+		byte[] jsonBytes = super.toJson(value);
+		if (jsonBytes != null) {
+			outputStream.write(jsonBytes);
+		}
+		else {
+			Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+			this.gson.toJson(value, writer);
+			writer.flush();
+		}
+	}
+
+	/*
+	 * Same semantics as Gson.fromJson(Reader, Type) (lenient parsing, 'null' for empty
+	 * document and validation that the entire document was consumed), however using
+	 * cached TypeAdapter.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T read(Reader json, Type type) {
+		JsonReader reader = this.gson.newJsonReader(json);
+		reader.setLenient(true);
+		boolean empty = true;
+		try {
+			reader.peek();
+			empty = false;
+			T value = (T) this.getTypeAdapter(type).read(reader);
+			if (reader.peek() != JsonToken.END_DOCUMENT) {
+				throw new JsonIOException("JSON document was not fully consumed.");
+			}
+			return value;
+		}
+		catch (EOFException e) {
+			if (empty) {
+				return null;
+			}
+			throw new JsonSyntaxException(e);
+		}
+		catch (IllegalStateException e) {
+			throw new JsonSyntaxException(e);
+		}
+		catch (IOException e) {
+			throw new JsonSyntaxException(e);
+		}
+	}
+
+	private Reader toReader(Object json) {
+		Reader reader = null;
+		if (json instanceof byte[]) {
+			reader = new InputStreamReader(new ByteArrayInputStream((byte[]) json), StandardCharsets.UTF_8);
+		}
+		else if (json instanceof String) {
+			reader = new StringReader((String) json);
+		}
+		else if (json instanceof Reader) {
+			reader = (Reader) json;
+		}
+		else if (json instanceof InputStream) {
+			reader = new InputStreamReader((InputStream) json, StandardCharsets.UTF_8);
+		}
+		else if (json instanceof ByteBuffer) {
+			ByteBuffer buffer = ((ByteBuffer) json).duplicate();
+			int length = buffer.remaining();
+			byte[] bytes;
+			int offset = 0;
+			if (buffer.hasArray()) {
+				bytes = buffer.array();
+				offset = buffer.arrayOffset() + buffer.position();
+			}
+			else {
+				bytes = new byte[length];
+				buffer.get(bytes);
+			}
+			reader = new InputStreamReader(new ByteArrayInputStream(bytes, offset, length), StandardCharsets.UTF_8);
+		}
+		return reader;
+	}
+
+	private TypeAdapter<?> getTypeAdapter(Type type) {
+		TypeAdapter<?> typeAdapter = this.typeAdapters.get(type);
+		if (typeAdapter == null) {
+			typeAdapter = this.gson.getAdapter(TypeToken.get(type));
+			if (this.typeAdapters.size() < CACHE_LIMIT) {
+				this.typeAdapters.put(type, typeAdapter);
+			}
+		}
+		return typeAdapter;
+	}
+
 }
@@ -16,22 +16,48 @@
 
 package org.springframework.cloud.function.json;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.Map;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import reactor.core.publisher.Flux;
+
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 /**
+ * Implementation of {@link JsonMapper} backed by Jackson's {@link ObjectMapper}.
+ * <br><br>
+ * {@link ObjectReader}s and {@link ObjectWriter}s are created once per target type (value class)
+ * using the type factory of the configured {@link ObjectMapper} and are cached in a bounded map.
+ * Since readers and writers capture the configuration of the mapper at the time of their creation,
+ * the {@link ObjectMapper} must be fully configured before it is used by this instance.
+ *
  * @author Dave Syer
  * @author Oleg Zhurakousky
  */
 public class JacksonMapper extends JsonMapper {
 
+	private static final int CACHE_LIMIT = 256;
+
 	private final ObjectMapper mapper;
 
+	private final Map<Type, ObjectReader> readers = new ConcurrentReferenceHashMap<>();
+
+	private final Map<Class<?>, ObjectWriter> writers = new ConcurrentReferenceHashMap<>();
+
 	public JacksonMapper(ObjectMapper mapper) {
 		this.mapper = mapper;
 	}
@@ -44,17 +70,26 @@ public class JacksonMapper extends JsonMapper {
 	@Override
 	public <T> T fromJson(Object json, Type type) {
 		T convertedValue = null;
-		JavaType constructType = TypeFactory.defaultInstance().constructType(type);
 
 		try {
+			ObjectReader reader = this.getReader(type);
 			if (json instanceof String) {
-				convertedValue = this.mapper.readValue((String) json, constructType);
+				convertedValue = reader.readValue((String) json);
 			}
 			else if (json instanceof byte[]) {
-				convertedValue = this.mapper.readValue((byte[]) json, constructType);
+				convertedValue = reader.readValue((byte[]) json);
 			}
 			else if (json instanceof Reader) {
-				convertedValue = this.mapper.readValue((Reader) json, constructType);
+				convertedValue = reader.readValue((Reader) json);
+			}
+			else if (json instanceof InputStream) {
+				convertedValue = reader.readValue((InputStream) json);
+			}
+			else if (json instanceof ByteBuffer) {
+				ByteBuffer buffer = (ByteBuffer) json;
+				convertedValue = buffer.hasArray()
+						? reader.readValue(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining())
+						: reader.readValue(new ByteBufferBackedInputStream(buffer.duplicate()));
 			}
 		}
 		catch (Exception e) {
@@ -63,12 +98,53 @@ public class JacksonMapper extends JsonMapper {
 		return convertedValue;
 	}
 
+	/**
+	 * Parses JSON array incrementally using Jackson's streaming {@link JsonParser}, converting
+	 * the next element only when it is requested by the subscriber.
+	 */
+	@Override
+	public <T> Flux<T> fromJsonArray(Object json, Type elementType) {
+		ObjectReader reader = this.getReader(elementType);
+		return Flux.generate(() -> {
+			JsonParser parser = this.createParser(json);
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				parser.close();
+				throw new IllegalArgumentException("Failed to convert. JSON input is not an array: " + json);
+			}
+			return parser;
+		}, (parser, sink) -> {
+			try {
+				JsonToken token = parser.nextToken();
+				while (token != null && token != JsonToken.END_ARRAY) {
+					T value = reader.readValue(parser);
+					if (value != null) {
+						sink.next(value);
+						return parser;
+					}
+					token = parser.nextToken();
+				}
+				sink.complete();
+			}
+			catch (Exception e) {
+				sink.error(new IllegalStateException("Failed to convert JSON array element to " + elementType, e));
+			}
+			return parser;
+		}, parser -> {
+			try {
+				parser.close();
+			}
+			catch (IOException e) {
+				// ignore
+			}
+		});
+	}
+
 	@Override
 	public byte[] toJson(Object value) {
 		byte[] jsonBytes = super.toJson(value);
 		if (jsonBytes == null) {
 			try {
-				jsonBytes = this.mapper.writeValueAsBytes(value);
+				jsonBytes = this.getWriter(value).writeValueAsBytes(value);
 			}
 			catch (Exception e) {
 				//ignore and let other converters have a chance
@@ -77,16 +153,77 @@ public class JacksonMapper extends JsonMapper {
 		return jsonBytes;
 	}
 
+	@Override
+	public void toJson(Object value, OutputStream outputStream) throws IOException {
+		byte[] jsonBytes = super.toJson(value);
+		if (jsonBytes != null) {
+			outputStream.write(jsonBytes);
+		}
+		else {
+			this.getWriter(value).writeValue(outputStream, value);
+		}
+	}
+
 	@Override
 	public String toString(Object value) {
 		try {
-			return this.mapper.writeValueAsString(value);
+			return this.getWriter(value).writeValueAsString(value);
 		}
 		catch (JsonProcessingException e) {
 			throw new IllegalArgumentException("Cannot convert to JSON", e);
 		}
 	}
 
+	private JsonParser createParser(Object json) throws IOException {
+		JsonFactory factory = this.mapper.getFactory();
+		if (json instanceof String) {
+			return factory.createParser((String) json);
+		}
+		else if (json instanceof byte[]) {
+			return factory.createParser((byte[]) json);
+		}
+		else if (json instanceof Reader) {
+			return factory.createParser((Reader) json);
+		}
+		else if (json instanceof InputStream) {
+			return factory.createParser((InputStream) json);
+		}
+		else if (json instanceof ByteBuffer) {
+			ByteBuffer buffer = (ByteBuffer) json;
+			return buffer.hasArray()
+					? factory.createParser(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining())
+					: factory.createParser(new ByteBufferBackedInputStream(buffer.duplicate()));
+		}
+		throw new IllegalArgumentException("Unsupported JSON input type: " + (json == null ? null : json.getClass()));
+	}
+
+	private ObjectReader getReader(Type type) {
+		ObjectReader reader = this.readers.get(type);
+		if (reader == null) {
+			reader = this.mapper.readerFor(this.mapper.getTypeFactory().constructType(type));
+			if (this.readers.size() < CACHE_LIMIT) {
+				this.readers.put(type, reader);
+			}
+		}
+		return reader;
+	}
 
+	/*
+	 * Writers never close the target stream, which makes no difference when writing to
+	 * byte[] or String.
+	 */
+	private ObjectWriter getWriter(Object value) {
+		if (value == null) {
+			return this.mapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		}
+		ObjectWriter writer = this.writers.get(value.getClass());
+		if (writer == null) {
+			writer = this.mapper.writerFor(value.getClass()).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			if (this.writers.size() < CACHE_LIMIT) {
+				this.writers.put(value.getClass(), writer);
+			}
+		}
+		return writer;
+	}
 
 }
@@ -16,13 +16,18 @@
 
 package org.springframework.cloud.function.json;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Flux;
 
 import org.springframework.core.ResolvableType;
 
@@ -60,20 +65,78 @@ public abstract class JsonMapper {
 	@Deprecated
 	abstract <T> T toObject(String json, Type type);
 
+	/**
+	 * Converts JSON to an instance of the provided type.
+	 * Implementations support JSON provided as {@code String}, {@code byte[]}, {@link ByteBuffer},
+	 * {@link InputStream} or {@link java.io.Reader}, where the later three are read directly without
+	 * creating an intermediate {@code String}.
+	 * @param <T> return type
+	 * @param json JSON input
+	 * @param type type to convert to
+	 * @return converted value
+	 */
 	public abstract <T> T fromJson(Object json, Type type);
 
+	/**
+	 * Converts JSON array to a {@link Flux} of its elements, each converted to an instance of the
+	 * provided element type. Accepts the same JSON sources as {@link #fromJson(Object, Type)}.
+	 * <br><br>
+	 * Default implementation converts the entire array to a {@link List} before emitting the first
+	 * element. Implementations backed by a streaming parser should override it to parse elements
+	 * one at a time as they are requested by the subscriber, so the entire array is never
+	 * held in memory. Elements which are JSON 'null' are skipped.
+	 * @param <T> element type
+	 * @param json JSON array input
+	 * @param elementType type to convert each element to
+	 * @return flux of converted elements
+	 * @since 3.1
+	 */
+	public <T> Flux<T> fromJsonArray(Object json, Type elementType) {
+		Type listType = ResolvableType.forClassWithGenerics(List.class, ResolvableType.forType(elementType)).getType();
+		return Flux.defer(() -> {
+			List<T> list = this.fromJson(json, listType);
+			return list == null ? Flux.empty() : Flux.fromIterable(list).filter(value -> value != null);
+		});
+	}
+
 	public byte[] toJson(Object value) {
 		byte[] result = null;
 		if (isJsonString(value)) {
 			if (logger.isDebugEnabled()) {
 				logger.debug(
-						"String already represents JSON. Skipping conversion in favor of 'getBytes(StandardCharsets.UTF_8'.");
+						"Value already represents JSON. Skipping conversion in favor of 'getBytes(StandardCharsets.UTF_8'.");
+			}
+			if (value instanceof byte[]) {
+				result = (byte[]) value;
+			}
+			else if (value instanceof ByteBuffer) {
+				// duplicate, so the position of the provided buffer is left as is
+				ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+				result = new byte[buffer.remaining()];
+				buffer.get(result);
+			}
+			else {
+				result = ((String) value).getBytes(StandardCharsets.UTF_8);
 			}
-			result = ((String) value).getBytes(StandardCharsets.UTF_8);
 		}
 		return result;
 	}
 
+	/**
+	 * Writes JSON representation of the value directly to the provided {@link OutputStream}
+	 * without creating an intermediate {@code String}. The stream is not closed.
+	 * @param value value to write
+	 * @param outputStream target stream
+	 * @throws IOException if writing fails
+	 * @since 3.1
+	 */
+	public void toJson(Object value, OutputStream outputStream) throws IOException {
+		byte[] result = this.toJson(value);
+		if (result != null) {
+			outputStream.write(result);
+		}
+	}
+
 	/**
 	 * @param <T>  type for list arguments
 	 * @param json JSON input
@@ -99,15 +162,141 @@ public abstract class JsonMapper {
 	public static boolean isJsonString(Object value) {
 		boolean isJson = false;
 		if (value instanceof byte[]) {
-			value = new String((byte[]) value, StandardCharsets.UTF_8);
+			byte[] bytes = (byte[]) value;
+			int first = 0;
+			int last = bytes.length - 1;
+			while (first <= last && isWhitespace(bytes[first])) {
+				first++;
+			}
+			while (last > first && isWhitespace(bytes[last])) {
+				last--;
+			}
+			isJson = first <= last && isJsonBoundary(bytes[first], bytes[last]);
 		}
-		if (value instanceof String) {
-			String str = ((String) value).trim();
-			isJson = (str.startsWith("\"") && str.endsWith("\"")) ||
-					(str.startsWith("{") && str.endsWith("}")) ||
-					(str.startsWith("[") && str.endsWith("]"));
+		else if (value instanceof ByteBuffer) {
+			ByteBuffer buffer = (ByteBuffer) value;
+			int first = buffer.position();
+			int last = buffer.limit() - 1;
+			while (first <= last && isWhitespace(buffer.get(first))) {
+				first++;
+			}
+			while (last > first && isWhitespace(buffer.get(last))) {
+				last--;
+			}
+			isJson = first <= last && isJsonBoundary(buffer.get(first), buffer.get(last));
+		}
+		else if (value instanceof String) {
+			String str = (String) value;
+			int first = 0;
+			int last = str.length() - 1;
+			while (first <= last && str.charAt(first) <= ' ') {
+				first++;
+			}
+			while (last > first && str.charAt(last) <= ' ') {
+				last--;
+			}
+			isJson = first <= last && isJsonBoundary(str.charAt(first), str.charAt(last));
 		}
 
 		return isJson;
 	}
+
+	/**
+	 * Performs a simple validation on an {@link InputStream} to see if it appears to contain JSON.
+	 * Unlike {@link #isJsonString(Object)} only the leading characters are inspected (since the
+	 * end of the stream is not known without reading it), so it only checks that the first
+	 * non-whitespace character is one of '{', '[' or '"'.
+	 * Requires the stream to support {@link InputStream#mark(int)}, in which case it is reset
+	 * to its original position, otherwise returns false.
+	 * @param inputStream candidate stream to evaluate
+	 * @return true if stream appears to contain JSON, otherwise false.
+	 * @throws IOException if reading the stream fails
+	 * @since 3.1
+	 */
+	public static boolean isJsonStream(InputStream inputStream) throws IOException {
+		if (!inputStream.markSupported()) {
+			return false;
+		}
+		int b = peekFirstNonWhitespace(inputStream);
+		return b == '{' || b == '[' || b == '"';
+	}
+
+	/**
+	 * Performs a simple validation on an object to see if it appears to be a JSON array.
+	 * Same as {@link #isJsonString(Object)} for {@code String}, {@code byte[]} and {@link ByteBuffer},
+	 * however additionally checks that the value begins with '['. {@link InputStream} is evaluated
+	 * the same way as in {@link #isJsonStream(InputStream)}.
+	 * @param value candidate object to evaluate
+	 * @return true if and object appears to be a JSON array, otherwise false.
+	 * @since 3.1
+	 */
+	public static boolean isJsonArray(Object value) {
+		if (value instanceof InputStream) {
+			InputStream inputStream = (InputStream) value;
+			try {
+				return inputStream.markSupported() && peekFirstNonWhitespace(inputStream) == '[';
+			}
+			catch (IOException e) {
+				return false;
+			}
+		}
+		if (!isJsonString(value)) {
+			return false;
+		}
+		if (value instanceof byte[]) {
+			byte[] bytes = (byte[]) value;
+			int first = 0;
+			while (isWhitespace(bytes[first])) {
+				first++;
+			}
+			return bytes[first] == '[';
+		}
+		else if (value instanceof ByteBuffer) {
+			ByteBuffer buffer = (ByteBuffer) value;
+			int first = buffer.position();
+			while (isWhitespace(buffer.get(first))) {
+				first++;
+			}
+			return buffer.get(first) == '[';
+		}
+		else {
+			String str = (String) value;
+			int first = 0;
+			while (str.charAt(first) <= ' ') {
+				first++;
+			}
+			return str.charAt(first) == '[';
+		}
+	}
+
+	/*
+	 * Returns first non-whitespace byte (or -1) and resets the stream to its original position.
+	 */
+	private static int peekFirstNonWhitespace(InputStream inputStream) throws IOException {
+		inputStream.mark(Integer.MAX_VALUE);
+		try {
+			int b = inputStream.read();
+			while (b != -1 && isWhitespace((byte) b)) {
+				b = inputStream.read();
+			}
+			return b;
+		}
+		finally {
+			inputStream.reset();
+		}
+	}
+
+	/*
+	 * Same semantics as String.trim(), however bytes of multi-byte UTF-8
+	 * sequences (negative values) are never treated as whitespace.
+	 */
+	private static boolean isWhitespace(byte b) {
+		return b >= 0 && b <= ' ';
+	}
+
+	private static boolean isJsonBoundary(int first, int last) {
+		return (first == '"' && last == '"') ||
+				(first == '{' && last == '}') ||
+				(first == '[' && last == ']');
+	}
 }
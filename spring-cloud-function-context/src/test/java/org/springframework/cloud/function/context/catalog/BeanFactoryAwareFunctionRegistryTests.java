@@ -20,6 +20,7 @@ package org.springframework.cloud.function.context.catalog;
 import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
@@ -46,6 +47,8 @@ import org.springframework.cloud.function.context.FunctionRegistry;
 import org.springframework.cloud.function.context.FunctionType;
 import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.Nullable;
@@ -116,6 +119,29 @@ public class BeanFactoryAwareFunctionRegistryTests {
 		assertThat(((FunctionInvocationWrapper) function).isComposed()).isTrue();
 	}
 
+	@Test
+	public void testRegistrationEventIsNotPublishedForFunctionsDiscoveredDuringLookup() {
+		List<FunctionRegistrationEvent> events = new ArrayList<>();
+		ApplicationContext context = new SpringApplicationBuilder(SampleFunctionConfiguration.class)
+				.listeners((ApplicationListener<ApplicationEvent>) event -> {
+					if (event instanceof FunctionRegistrationEvent) {
+						events.add((FunctionRegistrationEvent) event);
+					}
+				})
+				.run("--spring.main.lazy-initialization=true");
+		FunctionCatalog catalog = context.getBean(FunctionCatalog.class);
+		events.clear();
+
+		assertThat((Object) catalog.lookup("uppercase")).isNotNull();
+		assertThat(events).isEmpty();
+
+		Function<String, String> reverse = value -> new StringBuilder(value).reverse().toString();
+		((FunctionRegistry) catalog).register(new FunctionRegistration<>(reverse, "reverse")
+				.type(FunctionType.from(String.class).to(String.class)));
+		assertThat(events).hasSize(1);
+		assertThat(events.get(0).getNames()).containsOnly("reverse");
+	}
+
 	@Test
 	public void testImperativeFunction() {
 		FunctionCatalog catalog = this.configureCatalog();
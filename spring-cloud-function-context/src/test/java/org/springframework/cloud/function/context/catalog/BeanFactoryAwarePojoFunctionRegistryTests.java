@@ -16,14 +16,18 @@
 
 package org.springframework.cloud.function.context.catalog;
 
+import java.io.IOException;
 import java.util.function.Function;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Flux;
 
+import org.springframework.aop.framework.Advised;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.cloud.function.context.FunctionCatalog;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -92,6 +96,22 @@ public class BeanFactoryAwarePojoFunctionRegistryTests {
 		assertThat(f3.apply(Flux.just("foo")).blockFirst()).isEqualTo("FOO");
 	}
 
+	@Test
+	public void testWithPojoFunctionFailure() {
+		FunctionCatalog catalog = this.configureCatalog();
+		Function<String, String> f1 = catalog.lookup("myFailingFunctionLike");
+		assertThat(((FunctionInvocationWrapper) f1).getTarget()).isNotInstanceOf(Advised.class);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> f1.apply(""));
+		// checked exceptions are not wrapped either
+		Assertions.assertThrows(IOException.class, () -> f1.apply("io"));
+	}
+
+	@Test
+	public void testWithPojoFunctionWithMultipleParameters() {
+		FunctionCatalog catalog = this.configureCatalog();
+		assertThat((Object) catalog.lookup("myBiFunctionLike")).isNull();
+	}
+
 	@Test
 	public void testWithPojoFunctionComposition() {
 		FunctionCatalog catalog = this.configureCatalog();
@@ -114,6 +134,16 @@ public class BeanFactoryAwarePojoFunctionRegistryTests {
 			return new MyFunctionLike();
 		}
 
+		@Bean
+		public MyFailingFunctionLike myFailingFunctionLike() {
+			return new MyFailingFunctionLike();
+		}
+
+		@Bean
+		public MyBiFunctionLike myBiFunctionLike() {
+			return new MyBiFunctionLike();
+		}
+
 		@Bean
 		public Function<String, String> func() {
 			return v -> v;
@@ -138,4 +168,24 @@ public class BeanFactoryAwarePojoFunctionRegistryTests {
 			return value.toUpperCase();
 		}
 	}
+
+	// POJO Function which fails for some inputs
+	private static class MyFailingFunctionLike {
+		public String uppercase(String value) throws IOException {
+			if (value.isEmpty()) {
+				throw new IllegalArgumentException("empty");
+			}
+			if (value.equals("io")) {
+				throw new IOException("io");
+			}
+			return value.toUpperCase();
+		}
+	}
+
+	// POJO with a method which does not qualify as functional
+	private static class MyBiFunctionLike {
+		public String concat(String first, String second) {
+			return first + second;
+		}
+	}
 }
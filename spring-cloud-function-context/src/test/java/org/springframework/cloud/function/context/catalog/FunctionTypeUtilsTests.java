@@ -62,6 +62,36 @@ public class FunctionTypeUtilsTests {
 		System.out.println();
 	}
 
+	@Test
+	public void testMemoizedTypeInterrogation() {
+		FunctionTypeUtils.clearCache();
+		CountingParameterizedType type = new CountingParameterizedType(
+				(ParameterizedType) new ParameterizedTypeReference<Flux<Message<String>>>() { }.getType());
+
+		Type genericType = FunctionTypeUtils.getGenericType(type);
+		assertThat(genericType).isEqualTo(String.class);
+		assertThat(FunctionTypeUtils.isMessage(type)).isTrue();
+		assertThat(FunctionTypeUtils.isFlux(type)).isTrue();
+		assertThat(FunctionTypeUtils.isMono(type)).isFalse();
+		assertThat(FunctionTypeUtils.getRawType(type)).isEqualTo(Flux.class);
+		int interrogations = type.interrogations;
+		assertThat(interrogations).isPositive();
+
+		// served from the caches without interrogating the type again
+		assertThat(FunctionTypeUtils.getGenericType(type)).isSameAs(genericType);
+		assertThat(FunctionTypeUtils.isMessage(type)).isTrue();
+		assertThat(FunctionTypeUtils.isFlux(type)).isTrue();
+		assertThat(FunctionTypeUtils.isMono(type)).isFalse();
+		assertThat(FunctionTypeUtils.getRawType(type)).isEqualTo(Flux.class);
+		assertThat(type.interrogations).isEqualTo(interrogations);
+		assertThat(FunctionTypeUtils.isMessage(String.class)).isFalse();
+		assertThat(FunctionTypeUtils.getGenericType(null)).isNull();
+
+		FunctionTypeUtils.clearCache();
+		assertThat(FunctionTypeUtils.getGenericType(type)).isEqualTo(String.class);
+		assertThat(type.interrogations).isGreaterThan(interrogations);
+	}
+
 	@Test
 	public void testInputCount() throws Exception {
 		int inputCount = FunctionTypeUtils.getInputCount(getReturnType("function"));
@@ -228,6 +258,45 @@ public class FunctionTypeUtilsTests {
 
 	}
 
+	/*
+	 * Counts how many times the type was interrogated (identity based equality, so it
+	 * can be used as a cache key).
+	 */
+	private static class CountingParameterizedType implements ParameterizedType {
+
+		private final ParameterizedType delegate;
+
+		private int interrogations;
+
+		CountingParameterizedType(ParameterizedType delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Type[] getActualTypeArguments() {
+			this.interrogations++;
+			return this.delegate.getActualTypeArguments();
+		}
+
+		@Override
+		public Type getRawType() {
+			this.interrogations++;
+			return this.delegate.getRawType();
+		}
+
+		@Override
+		public Type getOwnerType() {
+			this.interrogations++;
+			return this.delegate.getOwnerType();
+		}
+
+		@Override
+		public String getTypeName() {
+			this.interrogations++;
+			return this.delegate.getTypeName();
+		}
+	}
+
 	public static class ReactiveFunctionImpl implements ReactiveFunction<String, Integer> {
 
 		@Override
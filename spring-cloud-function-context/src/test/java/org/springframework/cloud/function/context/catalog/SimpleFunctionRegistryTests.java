@@ -16,13 +16,20 @@
 
 package org.springframework.cloud.function.context.catalog;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.Gson;
@@ -31,11 +38,23 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuple3;
+import reactor.util.function.Tuple4;
+import reactor.util.function.Tuple5;
+import reactor.util.function.Tuple6;
+import reactor.util.function.Tuple7;
+import reactor.util.function.Tuple8;
+import reactor.util.function.Tuples;
 
 
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.cloud.function.context.FunctionCatalog;
+import org.springframework.cloud.function.context.FunctionProperties;
+import org.springframework.cloud.function.context.FunctionProperties.ExecutionMode;
+import org.springframework.cloud.function.context.FunctionProperties.FunctionConfigurationProperties;
 import org.springframework.cloud.function.context.FunctionRegistration;
 import org.springframework.cloud.function.context.FunctionRegistry;
 import org.springframework.cloud.function.context.FunctionType;
@@ -59,6 +78,7 @@ import org.springframework.messaging.converter.CompositeMessageConverter;
 import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.converter.StringMessageConverter;
 import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.util.MimeType;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -230,6 +250,28 @@ public class SimpleFunctionRegistryTests {
 				.getPayload()).isEqualTo("RATS");
 	}
 
+	@Test
+	public void testImperativeFunctionCompositionWithMessages() {
+		Function<Message<String>, Message<?>> toBytes = message -> MessageBuilder
+				.withPayload(message.getPayload().getBytes(StandardCharsets.UTF_8))
+				.copyHeaders(message.getHeaders())
+				.setHeader(MessageHeaders.CONTENT_TYPE, "text/plain")
+				.build();
+		SimpleFunctionRegistry catalog = new SimpleFunctionRegistry(this.conversionService, this.messageConverter,
+				new JacksonMapper(new ObjectMapper()));
+		catalog.register(new FunctionRegistration<>(toBytes, "toBytes")
+				.type(FunctionType.from(String.class).to(String.class).message()));
+		catalog.register(new FunctionRegistration<>(new ReverseMessage(), "reverse")
+				.type(FunctionType.of(ReverseMessage.class)));
+
+		Function<Message<String>, Message<String>> lookedUpFunction = catalog.lookup("toBytes|reverse");
+
+		// payload of the first stage does not match its declared type, so it must still be converted
+		Message<String> result = lookedUpFunction.apply(MessageBuilder.withPayload("star").setHeader("foo", "bar").build());
+		assertThat(result.getPayload()).isEqualTo("rats");
+		assertThat(result.getHeaders().get("foo")).isEqualTo("bar");
+	}
+
 	@Test
 	public void testFunctionCompositionMixedMessages() {
 		FunctionRegistration<UpperCaseMessage> upperCaseRegistration = new FunctionRegistration<>(
@@ -348,6 +390,383 @@ public class SimpleFunctionRegistryTests {
 		functionWrapper.apply("123");
 	}
 
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void lookupByAliasAndEvictionOnRegistration() {
+		SimpleFunctionRegistry functionRegistry = new SimpleFunctionRegistry(this.conversionService, this.messageConverter,
+				new JacksonMapper(new ObjectMapper()));
+		FunctionRegistration functionRegistration = new FunctionRegistration(uppercase(), "uppercase", "upper")
+				.type(FunctionType.from(String.class).to(String.class));
+		functionRegistry.register(functionRegistration);
+		functionRegistry.register(new FunctionRegistration(new Reverse(), "reverse")
+				.type(FunctionType.from(String.class).to(String.class)));
+
+		assertThat(functionRegistry.getNames(null)).containsExactlyInAnyOrder("uppercase", "upper", "reverse");
+		assertThat(functionRegistry.size()).isEqualTo(2);
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> functionRegistry.getNames(null).add("foo"));
+
+		FunctionInvocationWrapper function = functionRegistry.lookup("upper|reverse");
+		assertThat(function.apply("hello")).isEqualTo("OLLEH");
+		assertThat((Object) functionRegistry.lookup("upper|reverse")).isSameAs(function);
+
+		functionRegistry.register(new FunctionRegistration(hash(), "reverse")
+				.type(FunctionType.from(Object.class).to(Integer.class)));
+		FunctionInvocationWrapper recomposed = functionRegistry.lookup("upper|reverse");
+		assertThat(recomposed).isNotSameAs(function);
+		assertThat(recomposed.apply("hello")).isEqualTo("HELLO".hashCode());
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testImperativeCompositionWithPublisherInput() {
+		SimpleFunctionRegistry functionRegistry = new SimpleFunctionRegistry(this.conversionService, this.messageConverter,
+				new JacksonMapper(new ObjectMapper()));
+		functionRegistry.register(new FunctionRegistration(uppercase(), "uppercase")
+				.type(FunctionType.from(String.class).to(String.class)));
+		functionRegistry.register(new FunctionRegistration(new Reverse(), "reverse")
+				.type(FunctionType.from(String.class).to(String.class)));
+		functionRegistry.register(new FunctionRegistration(hash(), "hash")
+				.type(FunctionType.from(Object.class).to(Integer.class)));
+
+		FunctionInvocationWrapper function = functionRegistry.lookup("uppercase|reverse|hash");
+		assertThat(function.apply("hello")).isEqualTo("OLLEH".hashCode());
+
+		Flux<Integer> result = (Flux<Integer>) function.apply(Flux.just("hello", "bye"));
+		assertThat(result.collectList().block()).containsExactly("OLLEH".hashCode(), "EYB".hashCode());
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testJsonArrayInputIsStreamedIntoFlux() {
+		SimpleFunctionRegistry functionRegistry = new SimpleFunctionRegistry(this.conversionService, this.messageConverter,
+				new JacksonMapper(new ObjectMapper()));
+		Function<Flux<Person>, Flux<String>> names = flux -> flux.map(Person::getName);
+		functionRegistry.register(new FunctionRegistration(names, "names")
+				.type(FunctionType.from(Person.class).to(String.class).wrap(Flux.class)));
+
+		FunctionInvocationWrapper function = functionRegistry.lookup("names");
+		byte[] json = "[{\"name\":\"bill\"},{\"name\":\"bob\"}]".getBytes(StandardCharsets.UTF_8);
+		StepVerifier.create((Flux<String>) function.apply(new ByteArrayInputStream(json)), 1)
+			.expectNext("bill")
+			.thenRequest(1)
+			.expectNext("bob")
+			.verifyComplete();
+
+		Flux<String> result = (Flux<String>) function.apply(json);
+		assertThat(result.collectList().block()).containsExactly("bill", "bob");
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testInvocationPlanIsResolvedOnceAndSharedWithViews() {
+		SimpleFunctionRegistry functionRegistry = new SimpleFunctionRegistry(this.conversionService, this.messageConverter,
+				new JacksonMapper(new ObjectMapper()));
+		Function<Person, String> name = Person::getName;
+		functionRegistry.register(new FunctionRegistration(name, "name")
+				.type(FunctionType.from(Person.class).to(String.class)));
+
+		FunctionInvocationWrapper function = functionRegistry.lookup("name");
+		Object inputPlan = ReflectionTestUtils.getField(function, "inputPlan");
+		Object outputPlan = ReflectionTestUtils.getField(function, "outputPlan");
+		assertThat(inputPlan).isNotNull();
+		assertThat(outputPlan).isNotNull();
+
+		Message<byte[]> message = MessageBuilder.withPayload("{\"name\":\"bill\"}".getBytes(StandardCharsets.UTF_8))
+				.setHeader(MessageHeaders.CONTENT_TYPE, "application/json")
+				.build();
+		// every invocation path branches on the same plan
+		for (int i = 0; i < 3; i++) {
+			assertThat(function.apply(message)).isEqualTo("bill");
+			assertThat(function.apply("{\"name\":\"bob\"}")).isEqualTo("bob");
+			assertThat(((Flux<String>) function.apply(Flux.just(message, message))).collectList().block())
+				.containsExactly("bill", "bill");
+		}
+		assertThat(ReflectionTestUtils.getField(function, "inputPlan")).isSameAs(inputPlan);
+		assertThat(ReflectionTestUtils.getField(function, "outputPlan")).isSameAs(outputPlan);
+
+		FunctionInvocationWrapper view = functionRegistry.lookup("name", "text/plain");
+		assertThat(view).isNotSameAs(function);
+		assertThat(ReflectionTestUtils.getField(view, "inputPlan")).isSameAs(inputPlan);
+		assertThat(ReflectionTestUtils.getField(view, "outputPlan")).isSameAs(outputPlan);
+		assertThat(view.apply(message)).isInstanceOf(Message.class);
+	}
+
+	@Test
+	public void testTupleInputOfEveryArity() {
+		SimpleFunctionRegistry functionRegistry = new SimpleFunctionRegistry(this.conversionService, this.messageConverter,
+				new JacksonMapper(new ObjectMapper()));
+		Class<?>[] tupleTypes = { Tuple2.class, Tuple3.class, Tuple4.class, Tuple5.class, Tuple6.class, Tuple7.class, Tuple8.class };
+		Function<Tuple2<?, ?>, String> join = tuple -> tuple.toList().stream().map(String::valueOf)
+				.collect(Collectors.joining(","));
+		for (Class<?> tupleType : tupleTypes) {
+			int arity = tupleType.getTypeParameters().length;
+			ResolvableType[] argumentTypes = new ResolvableType[arity];
+			Arrays.fill(argumentTypes, ResolvableType.forClass(Integer.class));
+			functionRegistry.register(new FunctionRegistration<>(join, "join" + arity)
+					.type(ResolvableType.forClassWithGenerics(Function.class,
+							ResolvableType.forClassWithGenerics(tupleType, argumentTypes),
+							ResolvableType.forClass(String.class)).getType()));
+
+			FunctionInvocationWrapper function = functionRegistry.lookup("join" + arity);
+			String[] input = new String[arity];
+			for (int i = 0; i < arity; i++) {
+				input[i] = String.valueOf(i + 1);
+			}
+			// each argument is converted from String to Integer
+			assertThat(function.apply(Tuples.fromArray(input))).isEqualTo(String.join(",", input));
+		}
+	}
+
+	@Test
+	public void testTupleInputWithMismatchedArity() {
+		SimpleFunctionRegistry functionRegistry = new SimpleFunctionRegistry(this.conversionService, this.messageConverter,
+				new JacksonMapper(new ObjectMapper()));
+		Function<Tuple3<String, String, String>, String> join = tuple -> tuple.getT1() + tuple.getT2() + tuple.getT3();
+		functionRegistry.register(new FunctionRegistration<>(join, "join")
+				.type(ResolvableType.forClassWithGenerics(Function.class,
+						ResolvableType.forClassWithGenerics(Tuple3.class, String.class, String.class, String.class),
+						ResolvableType.forClass(String.class)).getType()));
+
+		FunctionInvocationWrapper function = functionRegistry.lookup("join");
+		assertThat(function.apply(Tuples.of("a", "b", "c"))).isEqualTo("abc");
+		Assertions.assertThrows(IllegalArgumentException.class, () -> function.apply(Tuples.of("a", "b")));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> function.apply(Tuples.of("a", "b", "c", "d")));
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testApplyBatch() {
+		SimpleFunctionRegistry functionRegistry = new SimpleFunctionRegistry(this.conversionService, this.messageConverter,
+				new JacksonMapper(new ObjectMapper()));
+		Function<Person, String> greet = person -> {
+			if (person.getName() == null) {
+				throw new IllegalArgumentException("name is required");
+			}
+			return "hello " + person.getName();
+		};
+		functionRegistry.register(new FunctionRegistration(greet, "greet")
+				.type(FunctionType.from(Person.class).to(String.class)));
+		FunctionInvocationWrapper function = functionRegistry.lookup("greet");
+
+		List<Object> inputs = Arrays.asList("{\"name\":\"bill\"}", "{}",
+				MessageBuilder.withPayload("{\"name\":\"bob\"}".getBytes())
+					.setHeader(MessageHeaders.CONTENT_TYPE, "application/json").build());
+
+		for (int parallelism : new int[] {1, 4}) {
+			BatchInvocationResult result = function.applyBatch(inputs, parallelism);
+			assertThat(result.size()).isEqualTo(3);
+			assertThat(result.hasErrors()).isTrue();
+			assertThat(result.getResult(0)).isEqualTo("hello bill");
+			assertThat(result.isSuccess(1)).isFalse();
+			assertThat(result.getError(1)).isInstanceOf(IllegalArgumentException.class);
+			assertThat(result.getResult(2)).isEqualTo("hello bob");
+		}
+
+		functionRegistry.register(new FunctionRegistration(new ReactiveFunction(), "reactive")
+				.type(FunctionType.of(ReactiveFunction.class)));
+		FunctionInvocationWrapper reactiveFunction = functionRegistry.lookup("reactive");
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> reactiveFunction.applyBatch(inputs));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testExecutionMode() {
+		SimpleFunctionRegistry functionRegistry = new SimpleFunctionRegistry(this.conversionService, this.messageConverter,
+				new JacksonMapper(new ObjectMapper()));
+		FunctionProperties functionProperties = new FunctionProperties();
+		FunctionConfigurationProperties configuration = new FunctionConfigurationProperties();
+		configuration.setExecution(ExecutionMode.BOUNDED_ELASTIC);
+		functionProperties.getConfiguration().put("blocking", configuration);
+		functionRegistry.setFunctionProperties(functionProperties);
+
+		Function<String, String> threadName = value -> Thread.currentThread().getName();
+		functionRegistry.register(new FunctionRegistration<>(threadName, "blocking")
+				.type(FunctionType.from(String.class).to(String.class)));
+		functionRegistry.register(new FunctionRegistration<>(threadName, "nonBlocking")
+				.type(FunctionType.from(String.class).to(String.class)));
+
+		FunctionInvocationWrapper blocking = functionRegistry.lookup("blocking");
+		FunctionInvocationWrapper nonBlocking = functionRegistry.lookup("nonBlocking");
+		String callingThread = Thread.currentThread().getName();
+
+		assertThat(((Flux<String>) blocking.apply(Flux.just("a", "b"))).collectList().block())
+			.allMatch(name -> name.startsWith("boundedElastic"));
+		assertThat(((Flux<String>) nonBlocking.apply(Flux.just("a", "b"))).collectList().block())
+			.containsOnly(callingThread);
+		// imperative invocation stays on the calling thread regardless of execution mode
+		assertThat(blocking.apply("a")).isEqualTo(callingThread);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testParallelExecution() {
+		SimpleFunctionRegistry functionRegistry = new SimpleFunctionRegistry(this.conversionService, this.messageConverter,
+				new JacksonMapper(new ObjectMapper()));
+		FunctionProperties functionProperties = new FunctionProperties();
+		FunctionConfigurationProperties unordered = new FunctionConfigurationProperties();
+		unordered.setConcurrency(4);
+		// the function below blocks
+		unordered.setExecution(ExecutionMode.BOUNDED_ELASTIC);
+		functionProperties.getConfiguration().put("unordered", unordered);
+		FunctionConfigurationProperties ordered = new FunctionConfigurationProperties();
+		ordered.setConcurrency(4);
+		ordered.setOrderedBy("key");
+		functionProperties.getConfiguration().put("ordered", ordered);
+		functionRegistry.setFunctionProperties(functionProperties);
+
+		CountDownLatch concurrentInvocations = new CountDownLatch(2);
+		Function<String, String> threadName = value -> {
+			concurrentInvocations.countDown();
+			try {
+				// only returns early if another rail invokes the function at the same time
+				concurrentInvocations.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return Thread.currentThread().getName();
+		};
+		functionRegistry.register(new FunctionRegistration<>(threadName, "unordered")
+				.type(FunctionType.from(String.class).to(String.class)));
+		Function<Message<String>, String> keyed = message -> message.getHeaders().get("key") + ":" + message.getPayload();
+		functionRegistry.register(new FunctionRegistration<>(keyed, "ordered")
+				.type(ResolvableType.forClassWithGenerics(Function.class,
+						ResolvableType.forClassWithGenerics(Message.class, String.class),
+						ResolvableType.forClass(String.class)).getType()));
+
+		FunctionInvocationWrapper unorderedFunction = functionRegistry.lookup("unordered");
+		List<String> threads = ((Flux<String>) unorderedFunction.apply(Flux.range(0, 16).map(String::valueOf)))
+				.collectList().block();
+		assertThat(threads).hasSize(16);
+		assertThat(concurrentInvocations.getCount()).isZero();
+		assertThat(threads.stream().distinct().count()).isGreaterThan(1);
+
+		FunctionInvocationWrapper orderedFunction = functionRegistry.lookup("ordered");
+		Flux<Message<String>> messages = Flux.range(0, 100).map(i -> MessageBuilder.withPayload(String.valueOf(i))
+				.setHeader("key", "key" + (i % 3)).build());
+		List<String> results = ((Flux<String>) orderedFunction.apply(messages)).collectList().block();
+		assertThat(results).hasSize(100);
+		for (int key = 0; key < 3; key++) {
+			String prefix = "key" + key + ":";
+			List<Integer> values = results.stream().filter(result -> result.startsWith(prefix))
+					.map(result -> Integer.valueOf(result.substring(prefix.length())))
+					.collect(Collectors.toList());
+			assertThat(values).isSorted().hasSize(key == 0 ? 34 : 33);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testBatching() {
+		SimpleFunctionRegistry functionRegistry = new SimpleFunctionRegistry(this.conversionService, this.messageConverter,
+				new JacksonMapper(new ObjectMapper()));
+		FunctionProperties functionProperties = new FunctionProperties();
+		FunctionConfigurationProperties configuration = new FunctionConfigurationProperties();
+		configuration.setBatchSize(3);
+		functionProperties.getConfiguration().put("greet", configuration);
+		functionProperties.getConfiguration().put("count", configuration);
+		functionRegistry.setFunctionProperties(functionProperties);
+		AtomicInteger inputConversions = new AtomicInteger();
+		functionRegistry.setFunctionAroundWrapper(new FunctionAroundWrapper() {
+			@Override
+			protected Object doApply(Message<byte[]> input, FunctionInvocationWrapper targetFunction) {
+				return targetFunction.apply(input);
+			}
+
+			@Override
+			protected void onInputConversion(FunctionInvocationWrapper targetFunction, long nanos) {
+				inputConversions.incrementAndGet();
+			}
+		});
+
+		List<Integer> batchSizes = new ArrayList<>();
+		Function<List<Person>, List<String>> greet = persons -> {
+			batchSizes.add(persons.size());
+			return persons.stream().map(person -> "hello " + person.getName()).collect(Collectors.toList());
+		};
+		functionRegistry.register(new FunctionRegistration<>(greet, "greet")
+				.type(ResolvableType.forClassWithGenerics(Function.class,
+						ResolvableType.forClassWithGenerics(List.class, Person.class),
+						ResolvableType.forClassWithGenerics(List.class, String.class)).getType()));
+		Function<Message<List<String>>, String> count = message -> message.getPayload().size() + ":"
+				+ ((List<?>) message.getHeaders().get(FunctionProperties.BATCH_HEADERS)).size();
+		functionRegistry.register(new FunctionRegistration<>(count, "count")
+				.type(ResolvableType.forClassWithGenerics(Function.class,
+						ResolvableType.forClassWithGenerics(Message.class, ResolvableType.forClassWithGenerics(List.class, String.class)),
+						ResolvableType.forClass(String.class)).getType()));
+
+		FunctionInvocationWrapper greetFunction = functionRegistry.lookup("greet");
+		Flux<Object> persons = Flux.just("{\"name\":\"bill\"}", "{\"name\":\"bob\"}",
+				MessageBuilder.withPayload("{\"name\":\"ricky\"}".getBytes())
+					.setHeader(MessageHeaders.CONTENT_TYPE, "application/json").build(),
+				"{\"name\":\"julien\"}");
+		assertThat(((Flux<String>) greetFunction.apply(persons)).collectList().block())
+			.containsExactly("hello bill", "hello bob", "hello ricky", "hello julien");
+		assertThat(batchSizes).containsExactly(3, 1);
+		// conversion is recorded once per batch
+		assertThat(inputConversions.get()).isEqualTo(2);
+
+		FunctionInvocationWrapper countFunction = functionRegistry.lookup("count");
+		Flux<Message<String>> messages = Flux.range(0, 7).map(i -> MessageBuilder.withPayload(String.valueOf(i)).build());
+		assertThat(((Flux<String>) countFunction.apply(messages)).collectList().block())
+			.containsExactly("3:3", "3:3", "1:1");
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testBatchingWithSlowSubscriber() {
+		SimpleFunctionRegistry functionRegistry = new SimpleFunctionRegistry(this.conversionService, this.messageConverter,
+				new JacksonMapper(new ObjectMapper()));
+		FunctionProperties functionProperties = new FunctionProperties();
+		FunctionConfigurationProperties configuration = new FunctionConfigurationProperties();
+		configuration.setBatchSize(2);
+		configuration.setBatchTimeout(Duration.ofMillis(10));
+		functionProperties.getConfiguration().put("identity", configuration);
+		functionRegistry.setFunctionProperties(functionProperties);
+		Function<List<Integer>, List<Integer>> identity = batch -> batch;
+		functionRegistry.register(new FunctionRegistration<>(identity, "identity")
+				.type(ResolvableType.forClassWithGenerics(Function.class,
+						ResolvableType.forClassWithGenerics(List.class, Integer.class),
+						ResolvableType.forClassWithGenerics(List.class, Integer.class)).getType()));
+
+		FunctionInvocationWrapper function = functionRegistry.lookup("identity");
+		// many more batches than could be buffered, while the timeout elapses several times without demand
+		StepVerifier.create((Flux<Integer>) function.apply(Flux.range(0, 1000)), 1)
+			.expectNext(0)
+			.thenAwait(Duration.ofMillis(100))
+			.thenRequest(Long.MAX_VALUE)
+			.expectNextSequence(() -> IntStream.range(1, 1000).iterator())
+			.verifyComplete();
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void lookupWithDifferentExpectedContentTypesDoesNotInterfere() {
+		SimpleFunctionRegistry functionRegistry = new SimpleFunctionRegistry(this.conversionService, this.messageConverter,
+				new JacksonMapper(new ObjectMapper()));
+		functionRegistry.register(new FunctionRegistration(uppercase(), "uppercase")
+				.type(FunctionType.from(String.class).to(String.class)));
+
+		FunctionInvocationWrapper plainFunction = functionRegistry.lookup("uppercase");
+		FunctionInvocationWrapper textFunction = functionRegistry.lookup("uppercase", "text/plain");
+		FunctionInvocationWrapper jsonFunction = functionRegistry.lookup("uppercase", "application/json");
+
+		assertThat(textFunction).isNotSameAs(plainFunction);
+		assertThat(jsonFunction).isNotSameAs(textFunction);
+		assertThat((Object) functionRegistry.lookup("uppercase", "text/plain")).isSameAs(textFunction);
+		assertThat((Object) functionRegistry.lookup("uppercase")).isSameAs(plainFunction);
+		assertThat(textFunction.getTarget()).isSameAs(plainFunction.getTarget());
+		assertThat(plainFunction.withExpectedOutputContentType(new String[0])).isSameAs(plainFunction);
+		assertThat(textFunction.withExpectedOutputContentType(null)).isSameAs(plainFunction);
+		assertThat(textFunction.withExpectedOutputContentType(new String[0])).isSameAs(plainFunction);
+
+		assertThat(plainFunction.apply("hello")).isEqualTo("HELLO");
+		Object result = textFunction.apply("hello");
+		assertThat(result).isInstanceOf(Message.class);
+		assertThat(((Message) result).getHeaders().get(MessageHeaders.CONTENT_TYPE).toString()).startsWith("text/plain");
+		assertThat(plainFunction.apply("hello")).isEqualTo("HELLO");
+	}
+
 
 	public Function<String, String> uppercase() {
 		return v -> v.toUpperCase();
@@ -16,6 +16,7 @@
 
 package org.springframework.cloud.function.context.config;
 
+import java.util.Map;
 import java.util.function.Function;
 
 import org.junit.jupiter.api.AfterEach;
@@ -28,11 +29,15 @@ import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.cloud.function.context.FunctionCatalog;
 import org.springframework.cloud.function.context.FunctionProperties;
+import org.springframework.cloud.function.context.FunctionRegistration;
+import org.springframework.cloud.function.context.FunctionRegistry;
+import org.springframework.cloud.function.context.FunctionType;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -134,6 +139,42 @@ public class RoutingFunctionTests {
 		assertThat(function.apply(message)).isEqualTo("olleh");
 	}
 
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testRepeatedInvocationWithMessageAndRoutingExpression() {
+		System.setProperty(FunctionProperties.PREFIX + ".routing-expression", "headers.function_name");
+		FunctionCatalog functionCatalog = this.configureCatalog();
+		Function function = functionCatalog.lookup(RoutingFunction.FUNCTION_NAME);
+		RoutingFunction routingFunction = this.context.getBean(RoutingFunction.class);
+		for (int i = 0; i < 10; i++) {
+			assertThat(function.apply(MessageBuilder.withPayload("hello").setHeader("function_name", "reverse").build()))
+				.isEqualTo("olleh");
+			assertThat(function.apply(MessageBuilder.withPayload("hello").setHeader("function_name", "uppercase").build()))
+				.isEqualTo("HELLO");
+		}
+		assertThat(routingFunction.getExpressionEvaluationCount()).isEqualTo(20);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testRouteTableIsKeptOnLookupAndClearedOnRegistration() {
+		FunctionCatalog functionCatalog = this.configureCatalog();
+		Function function = functionCatalog.lookup(RoutingFunction.FUNCTION_NAME);
+		RoutingFunction routingFunction = this.context.getBean(RoutingFunction.class);
+		Map<String, Object> routes = (Map<String, Object>) ReflectionTestUtils.getField(routingFunction, "routes");
+
+		// both functions are discovered in BeanFactory while routing, which must not clear the route table
+		assertThat(function.apply(MessageBuilder.withPayload("hello")
+				.setHeader(FunctionProperties.PREFIX + ".definition", "reverse").build())).isEqualTo("olleh");
+		assertThat(function.apply(MessageBuilder.withPayload("hello")
+				.setHeader(FunctionProperties.PREFIX + ".definition", "uppercase").build())).isEqualTo("HELLO");
+		assertThat(routes).containsOnlyKeys("reverse", "uppercase");
+
+		((FunctionRegistry) functionCatalog).register(new FunctionRegistration<Function<String, String>>(
+				String::toLowerCase, "lowercase").type(FunctionType.from(String.class).to(String.class)));
+		assertThat(routes).isEmpty();
+	}
+
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	@Test
 	public void testOtherExpectedFailures() {
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.function.context.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.function.json.JacksonMapper;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *
+ * @author Oleg Zhurakousky
+ *
+ */
+public class SmartCompositeMessageConverterTests {
+
+	private SmartCompositeMessageConverter messageConverter;
+
+	@BeforeEach
+	public void before() {
+		List<MessageConverter> messageConverters = new ArrayList<>();
+		messageConverters.add(new JsonMessageConverter(new JacksonMapper(new ObjectMapper())));
+		messageConverters.add(new ByteArrayMessageConverter());
+		messageConverters.add(new StringMessageConverter());
+		this.messageConverter = new SmartCompositeMessageConverter(messageConverters);
+	}
+
+	@Test
+	public void testFromMessageUsesNegotiatedConverter() {
+		Message<byte[]> message = MessageBuilder.withPayload("{\"name\":\"bill\"}".getBytes(StandardCharsets.UTF_8))
+				.setHeader(MessageHeaders.CONTENT_TYPE, "application/json").build();
+
+		Person person = (Person) this.messageConverter.fromMessage(message, Person.class);
+		assertThat(person.getName()).isEqualTo("bill");
+		assertThat(this.messageConverter.getCacheHits()).isEqualTo(0);
+		assertThat(this.messageConverter.getCacheMisses()).isEqualTo(1);
+
+		person = (Person) this.messageConverter.fromMessage(message, Person.class);
+		assertThat(person.getName()).isEqualTo("bill");
+		assertThat(this.messageConverter.getCacheHits()).isEqualTo(1);
+		assertThat(this.messageConverter.getCacheMisses()).isEqualTo(1);
+	}
+
+	@Test
+	public void testToMessageWithNonConcreteContentTypeRemembersResolvedMimeType() {
+		MessageHeaders headers = new MessageHeaders(Collections.singletonMap(MessageHeaders.CONTENT_TYPE, MimeType.valueOf("application/*")));
+
+		Message<?> result = this.messageConverter.toMessage("hello", headers);
+		assertThat(result.getHeaders().get(MessageHeaders.CONTENT_TYPE).toString()).startsWith("application/json");
+
+		result = this.messageConverter.toMessage("bye", headers);
+		assertThat(result.getHeaders().get(MessageHeaders.CONTENT_TYPE).toString()).startsWith("application/json");
+		assertThat(new String((byte[]) result.getPayload(), StandardCharsets.UTF_8)).isEqualTo("\"bye\"");
+		assertThat(this.messageConverter.getCacheHits()).isEqualTo(1);
+		assertThat(this.messageConverter.getCacheMisses()).isEqualTo(1);
+	}
+
+	@Test
+	public void testCachedConverterDoesNotOverrideConverterPrecedence() {
+		List<MessageConverter> messageConverters = new ArrayList<>();
+		messageConverters.add(new AbstractMessageConverter(MimeTypeUtils.TEXT_PLAIN) {
+			@Override
+			protected boolean supports(Class<?> clazz) {
+				return String.class == clazz;
+			}
+
+			@Override
+			protected Object convertFromInternal(Message<?> message, Class<?> targetClass, @Nullable Object conversionHint) {
+				String payload = new String((byte[]) message.getPayload(), StandardCharsets.UTF_8);
+				return payload.startsWith("foo") ? payload.toUpperCase() : null;
+			}
+		});
+		messageConverters.add(new StringMessageConverter());
+		SmartCompositeMessageConverter messageConverter = new SmartCompositeMessageConverter(messageConverters);
+
+		Message<byte[]> bar = MessageBuilder.withPayload("bar".getBytes(StandardCharsets.UTF_8))
+				.setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.TEXT_PLAIN).build();
+		Message<byte[]> foo = MessageBuilder.withPayload("foo".getBytes(StandardCharsets.UTF_8))
+				.setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.TEXT_PLAIN).build();
+
+		assertThat(messageConverter.fromMessage(bar, String.class)).isEqualTo("bar");
+		assertThat(messageConverter.fromMessage(foo, String.class)).isEqualTo("FOO");
+		assertThat(messageConverter.fromMessage(bar, String.class)).isEqualTo("bar");
+		assertThat(messageConverter.getCacheHits()).isEqualTo(0);
+	}
+
+	@Test
+	public void testFallbackScanSkipsCachedConverterWhichDeclined() {
+		AtomicInteger invocations = new AtomicInteger();
+		List<MessageConverter> messageConverters = new ArrayList<>();
+		messageConverters.add(new AbstractMessageConverter(MimeTypeUtils.TEXT_PLAIN) {
+			@Override
+			protected boolean supports(Class<?> clazz) {
+				return String.class == clazz;
+			}
+
+			@Override
+			protected Object convertFromInternal(Message<?> message, Class<?> targetClass, @Nullable Object conversionHint) {
+				invocations.incrementAndGet();
+				String payload = new String((byte[]) message.getPayload(), StandardCharsets.UTF_8);
+				return payload.startsWith("foo") ? payload.toUpperCase() : null;
+			}
+		});
+		messageConverters.add(new StringMessageConverter());
+		SmartCompositeMessageConverter messageConverter = new SmartCompositeMessageConverter(messageConverters);
+
+		Message<byte[]> foo = MessageBuilder.withPayload("foo".getBytes(StandardCharsets.UTF_8))
+				.setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.TEXT_PLAIN).build();
+		Message<byte[]> bar = MessageBuilder.withPayload("bar".getBytes(StandardCharsets.UTF_8))
+				.setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.TEXT_PLAIN).build();
+
+		assertThat(messageConverter.fromMessage(foo, String.class)).isEqualTo("FOO");
+		assertThat(invocations.get()).isEqualTo(1);
+		// cached converter declines, the rest of the converters is scanned without it
+		assertThat(messageConverter.fromMessage(bar, String.class)).isEqualTo("bar");
+		assertThat(invocations.get()).isEqualTo(2);
+		assertThat(messageConverter.getCacheHits()).isEqualTo(0);
+		assertThat(messageConverter.getCacheMisses()).isEqualTo(2);
+	}
+
+	@Test
+	public void testNoEntriesAreCachedAboveCacheLimit() {
+		List<MessageConverter> messageConverters = new ArrayList<>();
+		messageConverters.add(new JsonMessageConverter(new JacksonMapper(new ObjectMapper())));
+		SmartCompositeMessageConverter messageConverter = new SmartCompositeMessageConverter(messageConverters, 1);
+
+		Message<byte[]> message = MessageBuilder.withPayload("{\"name\":\"bill\"}".getBytes(StandardCharsets.UTF_8))
+				.setHeader(MessageHeaders.CONTENT_TYPE, "application/json").build();
+		for (int i = 0; i < 2; i++) {
+			assertThat(((Person) messageConverter.fromMessage(message, Person.class)).getName()).isEqualTo("bill");
+			assertThat(messageConverter.fromMessage(message, Map.class)).isEqualTo(Collections.singletonMap("name", "bill"));
+		}
+		assertThat(messageConverter.getCacheHits()).isEqualTo(1);
+		assertThat(messageConverter.getCacheMisses()).isEqualTo(3);
+	}
+
+	public static class Person {
+
+		private String name;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+	}
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.function.context.message;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.SerializationUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *
+ * @author Oleg Zhurakousky
+ *
+ */
+public class LazyMessageHeadersTests {
+
+	@Test
+	public void testInheritsAndOverridesParentHeaders() {
+		Message<String> parent = MessageBuilder.withPayload("hello")
+				.setHeader("foo", "foo").setHeader("bar", "bar").build();
+
+		MessageHeaders headers = LazyMessageHeaders.of(parent.getHeaders(), Collections.singletonMap("bar", "baz"));
+
+		assertThat(headers.get("foo")).isEqualTo("foo");
+		assertThat(headers.get("bar")).isEqualTo("baz");
+		assertThat(headers.getId()).isNotNull().isNotEqualTo(parent.getHeaders().getId());
+		assertThat(headers.getId()).isEqualTo(headers.get(MessageHeaders.ID));
+		assertThat(headers.getTimestamp()).isNotNull();
+		assertThat(headers).hasSize(4).containsKeys("foo", "bar", MessageHeaders.ID, MessageHeaders.TIMESTAMP);
+		assertThat(parent.getHeaders().get("bar")).isEqualTo("bar");
+	}
+
+	@Test
+	public void testCopiesNonMessageHeadersParent() {
+		Map<String, Object> parent = new HashMap<>();
+		parent.put("foo", "foo");
+		parent.put("empty", null);
+
+		MessageHeaders headers = LazyMessageHeaders.of(parent);
+		parent.put("foo", "bar");
+
+		assertThat(headers.get("foo")).isEqualTo("foo");
+		assertThat(headers.containsKey("empty")).isFalse();
+	}
+
+	@Test
+	public void testDerivedFromLazyHeaders() {
+		MessageHeaders first = LazyMessageHeaders.of(Collections.singletonMap("foo", "foo"));
+		MessageHeaders second = LazyMessageHeaders.of(first, Collections.singletonMap("bar", "bar"));
+
+		assertThat(second.get("foo")).isEqualTo("foo");
+		assertThat(second.get("bar")).isEqualTo("bar");
+		assertThat(second.getId()).isNotEqualTo(first.getId());
+	}
+
+	@Test
+	public void testCompatibleWithMessageBuilderAndSerialization() {
+		Message<String> message = new GenericMessage<>("hello",
+				LazyMessageHeaders.of(Collections.singletonMap("foo", "foo")));
+
+		Message<String> copy = MessageBuilder.fromMessage(message).setHeader("bar", "bar").build();
+		assertThat(copy.getHeaders().get("foo")).isEqualTo("foo");
+		assertThat(copy.getHeaders().get("bar")).isEqualTo("bar");
+
+		MessageHeaders deserialized = (MessageHeaders) SerializationUtils.deserialize(SerializationUtils.serialize(message.getHeaders()));
+		assertThat(deserialized.getClass()).isEqualTo(MessageHeaders.class);
+		assertThat(deserialized.get("foo")).isEqualTo("foo");
+		assertThat(deserialized.getId()).isEqualTo(message.getHeaders().getId());
+		assertThat(deserialized.getTimestamp()).isEqualTo(message.getHeaders().getTimestamp());
+	}
+
+	@Test
+	public void testEqualsIsSymmetric() {
+		MessageHeaders headers = LazyMessageHeaders.of(Collections.singletonMap("foo", "foo"));
+		MessageHeaders standardHeaders = new MessageHeaders(headers);
+
+		assertThat(headers).isEqualTo(headers);
+		assertThat(headers.equals(standardHeaders)).isEqualTo(standardHeaders.equals(headers));
+		assertThat(headers.equals(new HashMap<>(headers))).isFalse();
+	}
+
+}
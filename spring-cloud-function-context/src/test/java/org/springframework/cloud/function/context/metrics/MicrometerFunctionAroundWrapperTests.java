@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.function.context.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.cloud.function.context.FunctionProperties;
+import org.springframework.cloud.function.context.FunctionProperties.ExecutionMode;
+import org.springframework.cloud.function.context.FunctionProperties.FunctionConfigurationProperties;
+import org.springframework.cloud.function.context.FunctionRegistration;
+import org.springframework.cloud.function.context.FunctionType;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
+import org.springframework.cloud.function.context.config.JsonMessageConverter;
+import org.springframework.cloud.function.json.JacksonMapper;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *
+ * @author Oleg Zhurakousky
+ *
+ */
+public class MicrometerFunctionAroundWrapperTests {
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private SimpleFunctionRegistry functionRegistry;
+
+	@BeforeEach
+	public void before() {
+		JacksonMapper jsonMapper = new JacksonMapper(new ObjectMapper());
+		List<MessageConverter> messageConverters = new ArrayList<>();
+		messageConverters.add(new JsonMessageConverter(jsonMapper));
+		messageConverters.add(new ByteArrayMessageConverter());
+		messageConverters.add(new StringMessageConverter());
+		this.functionRegistry = new SimpleFunctionRegistry(new DefaultConversionService(),
+				new CompositeMessageConverter(messageConverters), jsonMapper);
+		this.meterRegistry = new SimpleMeterRegistry();
+		this.functionRegistry.setFunctionAroundWrapper(new MicrometerFunctionAroundWrapper(this.meterRegistry));
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	public void testImperativeFunctionMetrics() {
+		Function<String, String> uppercase = value -> {
+			if (value.isEmpty()) {
+				throw new IllegalArgumentException("empty");
+			}
+			return value.toUpperCase();
+		};
+		this.functionRegistry.register(new FunctionRegistration(uppercase, "uppercase")
+				.type(FunctionType.from(String.class).to(String.class)));
+		FunctionInvocationWrapper function = this.functionRegistry.lookup("uppercase");
+
+		assertThat(function.apply("hello")).isEqualTo("HELLO");
+		assertThat(function.apply(MessageBuilder.withPayload("hello".getBytes())
+				.setHeader(MessageHeaders.CONTENT_TYPE, "text/plain").build())).isEqualTo("HELLO");
+		Assertions.assertThrows(IllegalArgumentException.class, () -> function.apply(""));
+
+		assertThat(this.meterRegistry.get(MicrometerFunctionAroundWrapper.INVOCATION)
+				.tag("function", "uppercase").timer().count()).isEqualTo(3);
+		assertThat(this.meterRegistry.get(MicrometerFunctionAroundWrapper.ERRORS)
+				.tag("function", "uppercase").counter().count()).isEqualTo(1);
+		assertThat(this.meterRegistry.get(MicrometerFunctionAroundWrapper.CONVERSION)
+				.tags("function", "uppercase", "direction", "input").timer().count()).isEqualTo(3);
+		assertThat(this.meterRegistry.get(MicrometerFunctionAroundWrapper.CONVERSION)
+				.tags("function", "uppercase", "direction", "output").timer().count()).isEqualTo(2);
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	public void testReactiveFunctionMetrics() {
+		Function<Flux<String>, Flux<String>> uppercase = flux -> flux.map(String::toUpperCase);
+		this.functionRegistry.register(new FunctionRegistration(uppercase, "uppercase")
+				.type(FunctionType.from(String.class).to(String.class).wrap(Flux.class)));
+		FunctionInvocationWrapper function = this.functionRegistry.lookup("uppercase");
+
+		Flux<String> result = (Flux<String>) function.apply(Flux.just("a", "b", "c"));
+		assertThat(this.meterRegistry.find(MicrometerFunctionAroundWrapper.SUBSCRIPTION).timer().count()).isEqualTo(0);
+
+		assertThat(result.collectList().block()).containsExactly("A", "B", "C");
+		assertThat(this.meterRegistry.get(MicrometerFunctionAroundWrapper.SUBSCRIPTION)
+				.tag("function", "uppercase").timer().count()).isEqualTo(1);
+		assertThat(this.meterRegistry.get(MicrometerFunctionAroundWrapper.ELEMENT)
+				.tag("function", "uppercase").timer().count()).isEqualTo(3);
+		assertThat(this.meterRegistry.get(MicrometerFunctionAroundWrapper.CONVERSION)
+				.tags("function", "uppercase", "direction", "input").timer().count()).isEqualTo(3);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testExecutionSchedulingMetrics() {
+		FunctionProperties functionProperties = new FunctionProperties();
+		FunctionConfigurationProperties configuration = new FunctionConfigurationProperties();
+		configuration.setExecution(ExecutionMode.BOUNDED_ELASTIC);
+		functionProperties.getConfiguration().put("uppercase", configuration);
+		this.functionRegistry.setFunctionProperties(functionProperties);
+		this.functionRegistry.register(new FunctionRegistration<Function<String, String>>(String::toUpperCase, "uppercase")
+				.type(FunctionType.from(String.class).to(String.class)));
+		FunctionInvocationWrapper function = this.functionRegistry.lookup("uppercase");
+
+		Flux<String> result = (Flux<String>) function.apply(Flux.just("a", "b", "c"));
+		assertThat(result.collectList().block()).containsExactly("A", "B", "C");
+		assertThat(this.meterRegistry.get(MicrometerFunctionAroundWrapper.SCHEDULING)
+				.tag("function", "uppercase").timer().count()).isEqualTo(3);
+	}
+
+	@Test
+	public void testNoMetricsWithoutWrapper() {
+		this.functionRegistry.setFunctionAroundWrapper(null);
+		this.functionRegistry.register(new FunctionRegistration<Function<String, String>>(String::toUpperCase, "uppercase")
+				.type(FunctionType.from(String.class).to(String.class)));
+		FunctionInvocationWrapper function = this.functionRegistry.lookup("uppercase");
+
+		assertThat(function.apply("hello")).isEqualTo("HELLO");
+		assertThat(this.meterRegistry.getMeters()).isEmpty();
+	}
+
+}
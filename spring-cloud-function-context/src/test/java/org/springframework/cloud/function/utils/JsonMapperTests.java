@@ -16,13 +16,19 @@
 
 package org.springframework.cloud.function.utils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.stream.Stream;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
+import reactor.test.StepVerifier;
 
 import org.springframework.cloud.function.json.GsonMapper;
 import org.springframework.cloud.function.json.JacksonMapper;
@@ -87,6 +93,23 @@ public class JsonMapperTests {
 		assertThat(new String(bytes)).isEqualTo(json);
 	}
 
+	@ParameterizedTest
+	@MethodSource("params")
+	public void bufferRepresentingJson(JsonMapper mapper) {
+		String json = "{\"value\":\"foo\"}";
+		ByteBuffer buffer = ByteBuffer.wrap(("xx" + json).getBytes(StandardCharsets.UTF_8));
+		buffer.position(2);
+		byte[] bytes = mapper.toJson(buffer);
+		assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo(json);
+		assertThat(buffer.position()).isEqualTo(2);
+
+		ByteBuffer directBuffer = ByteBuffer.allocateDirect(json.length());
+		directBuffer.put(json.getBytes(StandardCharsets.UTF_8)).flip();
+		bytes = mapper.toJson(directBuffer);
+		assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo(json);
+		assertThat(directBuffer.remaining()).isEqualTo(json.length());
+	}
+
 	@ParameterizedTest
 	@MethodSource("params")
 	public void intValue(JsonMapper mapper) {
@@ -101,6 +124,62 @@ public class JsonMapperTests {
 		assertThat(foo.getValue()).isNull();
 	}
 
+	@ParameterizedTest
+	@MethodSource("params")
+	public void streamsAndBuffers(JsonMapper mapper) throws Exception {
+		String json = "{\"value\":\"foo\"}";
+		Foo foo = mapper.fromJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), Foo.class);
+		assertThat(foo.getValue()).isEqualTo("foo");
+
+		foo = mapper.fromJson(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)), Foo.class);
+		assertThat(foo.getValue()).isEqualTo("foo");
+
+		ByteBuffer directBuffer = ByteBuffer.allocateDirect(json.length());
+		directBuffer.put(json.getBytes(StandardCharsets.UTF_8)).flip();
+		foo = mapper.fromJson(directBuffer, Foo.class);
+		assertThat(foo.getValue()).isEqualTo("foo");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		mapper.toJson(foo, out);
+		assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(json);
+	}
+
+	@ParameterizedTest
+	@MethodSource("params")
+	public void streamingArray(JsonMapper mapper) {
+		String json = " [{\"value\":\"foo\"}, null, {\"value\":\"bar\"}]";
+		StepVerifier.create(mapper.<Foo>fromJsonArray(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), Foo.class), 1)
+			.assertNext(foo -> assertThat(foo.getValue()).isEqualTo("foo"))
+			.thenRequest(1)
+			.assertNext(foo -> assertThat(foo.getValue()).isEqualTo("bar"))
+			.thenRequest(1)
+			.verifyComplete();
+
+		StepVerifier.create(mapper.fromJsonArray("[]", Foo.class)).verifyComplete();
+		StepVerifier.create(mapper.fromJsonArray("{\"value\":\"foo\"}", Foo.class)).expectError().verify();
+	}
+
+	@Test
+	public void jsonStringDetection() throws Exception {
+		assertThat(JsonMapper.isJsonString(" \n{\"value\":\"foo\"}\t ".getBytes(StandardCharsets.UTF_8))).isTrue();
+		assertThat(JsonMapper.isJsonString(" [1, 2] ")).isTrue();
+		assertThat(JsonMapper.isJsonString("\"")).isTrue();
+		assertThat(JsonMapper.isJsonString(ByteBuffer.wrap("  \"foo\"  ".getBytes(StandardCharsets.UTF_8)))).isTrue();
+		assertThat(JsonMapper.isJsonString("{foo".getBytes(StandardCharsets.UTF_8))).isFalse();
+		assertThat(JsonMapper.isJsonString("   ".getBytes(StandardCharsets.UTF_8))).isFalse();
+		assertThat(JsonMapper.isJsonString(new byte[0])).isFalse();
+		assertThat(JsonMapper.isJsonString("hello")).isFalse();
+
+		ByteArrayInputStream stream = new ByteArrayInputStream("  {\"value\":\"foo\"}".getBytes(StandardCharsets.UTF_8));
+		assertThat(JsonMapper.isJsonStream(stream)).isTrue();
+		assertThat(stream.read()).isEqualTo(' ');
+		assertThat(JsonMapper.isJsonStream(new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8)))).isFalse();
+
+		assertThat(JsonMapper.isJsonArray(" [1, 2] ".getBytes(StandardCharsets.UTF_8))).isTrue();
+		assertThat(JsonMapper.isJsonArray(new ByteArrayInputStream("\n[]".getBytes(StandardCharsets.UTF_8)))).isTrue();
+		assertThat(JsonMapper.isJsonArray("{\"value\":\"foo\"}")).isFalse();
+	}
+
 	public static class Foo {
 
 		private String value;
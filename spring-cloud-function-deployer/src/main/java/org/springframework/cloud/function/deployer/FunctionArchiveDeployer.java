@@ -120,6 +120,7 @@ class FunctionArchiveDeployer extends JarLauncher {
 		try {
 			this.archiveLoader.close();
 			logger.info("Closed archive class loader");
+			FunctionTypeUtils.clearCache();
 		}
 		catch (IOException e) {
 			logger.error("Failed to closed archive class loader", e);
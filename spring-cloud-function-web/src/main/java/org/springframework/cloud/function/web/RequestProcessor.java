@@ -19,6 +19,8 @@ package org.springframework.cloud.function.web;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -65,6 +67,7 @@ import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.ReflectionUtils;
@@ -80,6 +83,8 @@ public class RequestProcessor {
 
 	private static Log logger = LogFactory.getLog(RequestProcessor.class);
 
+	private static final List<MediaType> STREAMING_MEDIA_TYPES = Arrays.asList(
+			MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM);
 
 	private final FunctionCatalog functionCatalog;
 
@@ -129,7 +134,9 @@ public class RequestProcessor {
 		Mono<ResponseEntity<?>> responseEntity = Mono
 				.from(body(wrapper.handler(), exchange))
 				.doOnError(e -> logger.error("Failed to generate POST input for function: " + wrapper.function, e))
-				.flatMap(body -> response(wrapper, body, false));
+				.flatMap(body -> body instanceof byte[]
+						? this.post(wrapper, (byte[]) body, false)
+						: response(wrapper, body, false));
 
 		return responseEntity;
 	}
@@ -140,21 +147,13 @@ public class RequestProcessor {
 		Class<?> inputType = function == null
 				? Object.class
 				: FunctionTypeUtils.getRawType(FunctionTypeUtils.getGenericType(((FunctionInvocationWrapper) function).getInputType()));
-		Type itemType = getItemType(function);
 
 		Object input = body == null && inputType.isAssignableFrom(String.class) ? "" : body;
 
 		if ((isInputMultiple(this.getTargetIfRouting(wrapper, function))  || !(function instanceof RoutingFunction))
 				&& input != null) { // TODO rework. . . pretty ugly
 			if (this.shouldUseJsonConversion((String) input, wrapper.headers.getContentType())) {
-				Type jsonType = body.startsWith("[")
-						&& Collection.class.isAssignableFrom(inputType)
-						|| body.startsWith("{") ? inputType : Collection.class;
-				if (body.startsWith("[") && itemType instanceof Class) {
-					jsonType = ResolvableType.forClassWithGenerics((Class<?>) jsonType,
-							(Class<?>) itemType).getType();
-				}
-				input = this.mapper.fromJson((String) input, jsonType);
+				return this.postJson(wrapper, function, body, body.charAt(0), inputType, stream);
 			}
 			else {
 				input = this.converter.convert(function, (String) input);
@@ -164,6 +163,106 @@ public class RequestProcessor {
 		return response(wrapper, input, stream);
 	}
 
+	/**
+	 * Same as {@link #post(FunctionWrapper, String, boolean)}, but with the raw request body,
+	 * so it is decoded only once and only into what the function actually needs. JSON (in
+	 * UTF-8) is parsed directly from the bytes into the input type of the function, functions which
+	 * accept {@code byte[]} get the body as is and {@code String} is only created if the
+	 * function accepts it (or the body has to be converted from text otherwise).
+	 * @param wrapper the function wrapper
+	 * @param body raw request body (can be null)
+	 * @param stream whether the output of the function should be streamed
+	 * @return response entity
+	 * @since 3.1
+	 */
+	public Mono<ResponseEntity<?>> post(FunctionWrapper wrapper, byte[] body, boolean stream) {
+		Object function = wrapper.handler();
+		if (body == null || body.length == 0 || function == null || function instanceof RoutingFunction) {
+			return this.post(wrapper, this.decode(body, wrapper.headers.getContentType()), stream);
+		}
+		Class<?> inputType = FunctionTypeUtils.getRawType(
+				FunctionTypeUtils.getGenericType(((FunctionInvocationWrapper) function).getInputType()));
+		if (inputType == byte[].class) {
+			return response(wrapper, body, stream);
+		}
+		if (!inputType.isAssignableFrom(String.class)
+				&& this.shouldUseJsonConversion(body, wrapper.headers.getContentType())
+				&& this.isUtf8(wrapper.headers.getContentType())) {
+			return this.postJson(wrapper, function, body, (char) body[0], inputType, stream);
+		}
+		return this.post(wrapper, this.decode(body, wrapper.headers.getContentType()), stream);
+	}
+
+	/**
+	 * Reads the input of an imperative function (one which neither accepts nor produces
+	 * {@link Publisher}) from the raw request body the same way {@link #post(FunctionWrapper, byte[], boolean)}
+	 * does, however without invoking the function. JSON is parsed with the {@link JsonMapper}
+	 * of the application and text is decoded using the charset of the content type (UTF-8
+	 * by default). JSON array sent to a function which does not accept {@link Collection} is
+	 * returned as {@link Collection} of its elements, which are meant to be applied one by one.
+	 * @param wrapper the function wrapper
+	 * @param body raw request body (can be null)
+	 * @return the input or null if it can not be determined
+	 * @since 3.1
+	 */
+	public Object readInput(FunctionWrapper wrapper, byte[] body) {
+		Object function = wrapper.handler();
+		MediaType contentType = wrapper.headers.getContentType();
+		Class<?> inputType = FunctionTypeUtils.getRawType(
+				FunctionTypeUtils.getGenericType(((FunctionInvocationWrapper) function).getInputType()));
+		if (body != null && body.length > 0) {
+			if (inputType == byte[].class) {
+				return body;
+			}
+			if (!inputType.isAssignableFrom(String.class) && this.shouldUseJsonConversion(body, contentType)
+					&& this.isUtf8(contentType)) {
+				return this.jsonInput(function, body, (char) body[0], inputType);
+			}
+		}
+		String text = this.decode(body, contentType);
+		if (text == null) {
+			return inputType.isAssignableFrom(String.class) ? this.converter.convert(function, "") : null;
+		}
+		return this.shouldUseJsonConversion(text, contentType)
+				? this.jsonInput(function, text, text.charAt(0), inputType)
+				: this.converter.convert(function, text);
+	}
+
+	private Mono<ResponseEntity<?>> postJson(FunctionWrapper wrapper, Object function, Object json,
+			char firstCharacter, Class<?> inputType, boolean stream) {
+		return response(wrapper, this.jsonInput(function, json, firstCharacter, inputType), stream);
+	}
+
+	/*
+	 * JSON is either String or byte[], since both are accepted by JsonMapper.
+	 */
+	private Object jsonInput(Object function, Object json, char firstCharacter, Class<?> inputType) {
+		Type itemType = getItemType(function);
+		boolean array = firstCharacter == '[';
+		if (array && this.isInputStreamable(function, inputType)) {
+			// elements are parsed one at a time as they are requested by the function
+			return this.mapper.fromJsonArray(json, itemType);
+		}
+		Type jsonType = array
+				&& Collection.class.isAssignableFrom(inputType)
+				|| firstCharacter == '{' ? inputType : Collection.class;
+		if (array && itemType instanceof Class) {
+			jsonType = ResolvableType.forClassWithGenerics((Class<?>) jsonType,
+					(Class<?>) itemType).getType();
+		}
+		return this.mapper.fromJson(json, jsonType);
+	}
+
+	private String decode(byte[] body, MediaType contentType) {
+		if (body == null || body.length == 0) {
+			return null;
+		}
+		Charset charset = contentType != null && contentType.getCharset() != null
+				? contentType.getCharset()
+				: StandardCharsets.UTF_8;
+		return new String(body, charset);
+	}
+
 	public Mono<ResponseEntity<?>> stream(FunctionWrapper request) {
 		Publisher<?> result = request.function() != null
 				? value(request)
@@ -171,12 +270,36 @@ public class RequestProcessor {
 		return stream(request, result);
 	}
 
+	/*
+	 * Whether JSON array could be streamed directly into function which accepts Flux
+	 * of individual elements (as opposed to Flux<List> or Mono).
+	 */
+	private boolean isInputStreamable(Object function, Class<?> inputType) {
+		return function instanceof FunctionInvocationWrapper
+				&& FunctionTypeUtils.isFlux(((FunctionInvocationWrapper) function).getInputType())
+				&& !Collection.class.isAssignableFrom(inputType)
+				&& inputType != Object.class && inputType != String.class;
+	}
+
 	private boolean shouldUseJsonConversion(String body, MediaType contentType) {
 		return (body.startsWith("[") || body.startsWith("{"))
 				&& (contentType == null || (contentType != null
 						&& !"text".equalsIgnoreCase(contentType.getType())));
 	}
 
+	private boolean shouldUseJsonConversion(byte[] body, MediaType contentType) {
+		return (body[0] == '[' || body[0] == '{')
+				&& (contentType == null || !"text".equalsIgnoreCase(contentType.getType()));
+	}
+
+	/*
+	 * JsonMapper expects JSON bytes to be encoded in UTF-8, anything else is decoded first.
+	 */
+	private boolean isUtf8(MediaType contentType) {
+		return contentType == null || contentType.getCharset() == null
+				|| StandardCharsets.UTF_8.equals(contentType.getCharset());
+	}
+
 	private List<HttpMessageReader<?>> getMessageReaders() {
 		return this.messageReaders;
 	}
@@ -202,14 +325,40 @@ public class RequestProcessor {
 		}
 
 		if (result instanceof Flux) {
+			MediaType streamingMediaType = this.getStreamingMediaType(request, handler);
+			if (streamingMediaType != null) {
+				// failure terminates the stream, so the client can tell it is incomplete
+				return Mono.just(builder.contentType(streamingMediaType).body(result));
+			}
 			result = Flux.from(result).onErrorContinue((e, v) -> {
 				logger.error("Failed to process value: " + v, e);
-			})
-			.collectList();
+			}).collectList();
 		}
 		return Mono.from(result).flatMap(body -> Mono.just(builder.body(body)));
 	}
 
+	/*
+	 * Multi-valued output is written element by element (instead of being collected into
+	 * a List first) if the client accepts newline delimited JSON or server-sent events.
+	 * Never for functions which work with messages, since their headers become response
+	 * headers and as such must be known before the first element is written.
+	 */
+	private MediaType getStreamingMediaType(FunctionWrapper request, Object handler) {
+		if (((FunctionInvocationWrapper) handler).isInputTypeMessage()) {
+			return null;
+		}
+		List<MediaType> acceptedMediaTypes = request.headers().getAccept();
+		MediaType.sortBySpecificityAndQuality(acceptedMediaTypes);
+		for (MediaType acceptedMediaType : acceptedMediaTypes) {
+			for (MediaType streamingMediaType : STREAMING_MEDIA_TYPES) {
+				if (streamingMediaType.equalsTypeAndSubtype(acceptedMediaType)) {
+					return streamingMediaType;
+				}
+			}
+		}
+		return null;
+	}
+
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public Mono<ResponseEntity<?>> response(FunctionWrapper wrapper, Object body,
 			boolean stream) {
@@ -275,7 +424,7 @@ public class RequestProcessor {
 				}
 				else {
 					responseEntityMono = response(wrapper, getTargetIfRouting(wrapper, function), result,
-							body == null ? null : !(body instanceof Collection), false);
+							body == null ? null : !(body instanceof Collection || body instanceof Publisher), false);
 				}
 			}
 		}
@@ -287,7 +436,7 @@ public class RequestProcessor {
 			}
 			else {
 				responseEntityMono = response(wrapper, getTargetIfRouting(wrapper, function), result,
-						body == null ? null : !(body instanceof Collection), false);
+						body == null ? null : !(body instanceof Collection || body instanceof Publisher), false);
 			}
 		}
 		return responseEntityMono;
@@ -313,7 +462,9 @@ public class RequestProcessor {
 		if (function instanceof FunctionInvocationWrapper) {
 			headers.put("scf-func-name", ((FunctionInvocationWrapper) function).getFunctionDefinition());
 		}
-		return flux.map(payload -> MessageUtils.create(function, payload, headers));
+		// shared (not copied) by every message created for this request
+		MessageHeaders messageHeaders = new MessageHeaders(headers);
+		return flux.map(payload -> MessageUtils.create(function, payload, messageHeaders));
 	}
 
 	private void addHeaders(BodyBuilder builder, Message<?> message) {
@@ -373,10 +524,10 @@ public class RequestProcessor {
 		FunctionInvocationWrapper function = (FunctionInvocationWrapper) handler;
 		Class<?> inputType = FunctionTypeUtils
 				.getRawType(FunctionTypeUtils.getGenericType(function.getInputType()));
-		ResolvableType elementType = ResolvableType.forClass(inputType);
-
-		// we effectively delegate type conversion to FunctionCatalog
-		elementType = ResolvableType.forClass(String.class);
+		// we effectively delegate type conversion to FunctionCatalog, so unless the function
+		// accepts String the body is read as is (no decoding) and converted by the function
+		ResolvableType elementType = ResolvableType.forClass(
+				inputType.isAssignableFrom(String.class) ? String.class : byte[].class);
 
 		ResolvableType actualType = elementType;
 
@@ -58,7 +58,7 @@ public class FunctionController {
 	public Mono<ResponseEntity<?>> form(ServerWebExchange request) {
 		FunctionWrapper wrapper = wrapper(request);
 		return request.getFormData().doOnSuccess(params -> wrapper.params(params))
-				.then(Mono.defer(() -> this.processor.post(wrapper, null, false)));
+				.then(Mono.defer(() -> this.processor.post(wrapper, (String) null, false)));
 	}
 
 	@PostMapping(path = "/**", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -67,7 +67,7 @@ public class FunctionController {
 		FunctionWrapper wrapper = wrapper(request);
 		return request.getMultipartData()
 				.doOnSuccess(params -> wrapper.params(multi(params)))
-				.then(Mono.defer(() -> this.processor.post(wrapper, null, false)));
+				.then(Mono.defer(() -> this.processor.post(wrapper, (String) null, false)));
 	}
 
 	private MultiValueMap<String, String> multi(MultiValueMap<String, Part> body) {
@@ -93,7 +93,7 @@ public class FunctionController {
 	@PostMapping(path = "/**")
 	@ResponseBody
 	public Mono<ResponseEntity<?>> post(ServerWebExchange request,
-			@RequestBody(required = false) String body) {
+			@RequestBody(required = false) byte[] body) {
 		FunctionWrapper wrapper = wrapper(request);
 		return this.processor.post(wrapper, body, false);
 	}
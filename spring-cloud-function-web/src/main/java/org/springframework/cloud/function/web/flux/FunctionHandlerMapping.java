@@ -24,8 +24,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.cloud.function.context.FunctionCatalog;
+import org.springframework.cloud.function.context.catalog.FunctionCatalogEvent;
 import org.springframework.cloud.function.web.constants.WebRequestConstants;
-import org.springframework.cloud.function.web.util.FunctionWebUtils;
+import org.springframework.cloud.function.web.util.FunctionPathIndex;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.util.StringUtils;
 import org.springframework.web.method.HandlerMethod;
@@ -39,9 +41,9 @@ import org.springframework.web.server.ServerWebExchange;
 @Configuration
 @ConditionalOnClass(RequestMappingHandlerMapping.class)
 public class FunctionHandlerMapping extends RequestMappingHandlerMapping
-		implements InitializingBean {
+		implements InitializingBean, ApplicationListener<FunctionCatalogEvent> {
 
-	private final FunctionCatalog functions;
+	private final FunctionPathIndex functionPathIndex;
 
 	private final FunctionController controller;
 
@@ -51,12 +53,17 @@ public class FunctionHandlerMapping extends RequestMappingHandlerMapping
 	@Autowired
 	public FunctionHandlerMapping(FunctionCatalog catalog,
 			FunctionController controller) {
-		this.functions = catalog;
+		this.functionPathIndex = new FunctionPathIndex(catalog);
 		this.logger.info("FunctionCatalog: " + catalog);
 		setOrder(super.getOrder() - 5);
 		this.controller = controller;
 	}
 
+	@Override
+	public void onApplicationEvent(FunctionCatalogEvent event) {
+		this.functionPathIndex.invalidate();
+	}
+
 	@Override
 	public void afterPropertiesSet() {
 		super.afterPropertiesSet();
@@ -79,8 +86,8 @@ public class FunctionHandlerMapping extends RequestMappingHandlerMapping
 		if (path.startsWith(this.prefix)) {
 			path = path.substring(this.prefix.length());
 		}
-		Object function = FunctionWebUtils
-				.findFunction(request.getRequest().getMethod(), this.functions, request.getAttributes(), path);
+		Object function = this.functionPathIndex
+				.findFunction(request.getRequest().getMethod(), request.getAttributes(), path);
 
 		if (function != null) {
 			if (this.logger.isDebugEnabled()) {
@@ -18,7 +18,12 @@ package org.springframework.cloud.function.web.function;
 
 import java.lang.management.ManagementFactory;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -38,6 +43,7 @@ import org.springframework.boot.web.reactive.error.DefaultErrorAttributes;
 import org.springframework.boot.web.reactive.error.ErrorAttributes;
 import org.springframework.cloud.function.context.FunctionCatalog;
 import org.springframework.cloud.function.context.FunctionalSpringApplication;
+import org.springframework.cloud.function.context.catalog.FunctionCatalogEvent;
 import org.springframework.cloud.function.context.catalog.FunctionTypeUtils;
 import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
 import org.springframework.cloud.function.context.config.ContextFunctionCatalogInitializer;
@@ -47,10 +53,11 @@ import org.springframework.cloud.function.web.RequestProcessor;
 import org.springframework.cloud.function.web.RequestProcessor.FunctionWrapper;
 import org.springframework.cloud.function.web.StringConverter;
 import org.springframework.cloud.function.web.constants.WebRequestConstants;
-import org.springframework.cloud.function.web.util.FunctionWebUtils;
+import org.springframework.cloud.function.web.util.FunctionPathIndex;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextInitializer;
 import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.SmartApplicationListener;
 import org.springframework.context.support.GenericApplicationContext;
@@ -61,6 +68,7 @@ import org.springframework.http.server.reactive.HttpHandler;
 import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.server.HandlerStrategies;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.RouterFunctions;
@@ -190,7 +198,7 @@ class FunctionEndpointInitializer implements ApplicationContextInitializer<Gener
 
 }
 
-class FunctionEndpointFactory {
+class FunctionEndpointFactory implements ApplicationListener<FunctionCatalogEvent> {
 
 	private static Log logger = LogFactory.getLog(FunctionEndpointFactory.class);
 
@@ -202,6 +210,10 @@ class FunctionEndpointFactory {
 
 	private final RequestProcessor processor;
 
+	private final FunctionPathIndex functionPathIndex;
+
+	private final AtomicReference<RouterFunction<ServerResponse>> routes = new AtomicReference<>();
+
 	FunctionEndpointFactory(FunctionCatalog functionCatalog, RequestProcessor processor,
 			Environment environment) {
 		String handler = environment.resolvePlaceholders("${function.handler}");
@@ -212,60 +224,202 @@ class FunctionEndpointFactory {
 //		this.inspector = inspector;
 		this.functionCatalog = functionCatalog;
 		this.handler = handler;
+		this.functionPathIndex = new FunctionPathIndex(functionCatalog);
 	}
 
-	private Object extract(ServerRequest request) {
-		Object function;
-		if (handler != null) {
-			logger.info("Configured function: " + handler);
-			Set<String> names = this.functionCatalog.getNames(Function.class);
-			Assert.isTrue(names.contains(handler), "Cannot locate function: " + handler);
-			function = this.functionCatalog.lookup(Function.class, handler);
-		}
-		else {
-			function = FunctionWebUtils.findFunction(request.method(), functionCatalog,
-					request.attributes(), request.path());
+	/*
+	 * Routes hold on to the functions they were created for, so they are re-created
+	 * (when the next request arrives) once functions are registered or unregistered.
+	 */
+	@Override
+	public void onApplicationEvent(FunctionCatalogEvent event) {
+		this.routes.set(null);
+		this.functionPathIndex.invalidate();
+	}
+
+	/**
+	 * Returns the router function which delegates to the routes of all functions in the
+	 * catalog, so the functions (as well as their output types) are only looked up once
+	 * and not for every request. Paths not mapped to a single function (e.g.,
+	 * composition) are still resolved when the request arrives. The routes are
+	 * re-created on every {@link FunctionCatalogEvent}.
+	 * @return router function
+	 */
+	public RouterFunction<ServerResponse> functionEndpoints() {
+		return request -> this.getRoutes().route(request);
+	}
+
+	private RouterFunction<ServerResponse> getRoutes() {
+		RouterFunction<ServerResponse> routes = this.routes.get();
+		if (routes == null) {
+			routes = this.createRoutes();
+			// routes created concurrently are equivalent, the first one wins
+			if (!this.routes.compareAndSet(null, routes)) {
+				RouterFunction<ServerResponse> current = this.routes.get();
+				routes = current == null ? routes : current;
+			}
 		}
-		return function;
+		return routes;
 	}
 
-	@SuppressWarnings({ "unchecked" })
-	public <T> RouterFunction<?> functionEndpoints() {
-		return route(POST("/**"), request -> {
-			Object function = extract(request);
-			FunctionInvocationWrapper funcWrapper = (FunctionInvocationWrapper) function;
-			Class<?> outputType = funcWrapper == null
-					? Object.class
-					: FunctionTypeUtils.getRawType(FunctionTypeUtils.getGenericType(funcWrapper.getOutputType()));
-			FunctionWrapper wrapper = RequestProcessor.wrapper((Function<Flux<?>, Flux<?>>) function, null, null);
-			Mono<ResponseEntity<?>> stream = request.bodyToMono(String.class)
-					.flatMap(content -> this.processor.post(wrapper, content, false));
-			return stream.flatMap(entity -> {
-				return status(entity.getStatusCode()).headers(headers -> headers.addAll(entity.getHeaders()))
-						.body(entity.hasBody() ? Mono.just((T) entity.getBody()) : Mono.empty(), outputType);
-			});
-		})
-		.andRoute(GET("/**"), request -> {
-			Object functionComponent = extract(request);
-			FunctionInvocationWrapper funcWrapper = (FunctionInvocationWrapper) functionComponent;
-			Class<?> outputType = FunctionTypeUtils.getRawType(FunctionTypeUtils.getGenericType(funcWrapper.getOutputType()));
-			if (((FunctionInvocationWrapper) functionComponent).isSupplier()) {
-				Supplier<? extends Flux<?>> supplier = (Supplier<Flux<?>>) functionComponent;
-				FunctionWrapper wrapper = RequestProcessor.wrapper(null, null, supplier);
-				Object result = wrapper.supplier().get();
-				if (!(result instanceof Publisher)) {
-					result = Mono.just(result);
+	private RouterFunction<ServerResponse> createRoutes() {
+		if (this.handler != null) {
+			logger.info("Configured function: " + this.handler);
+			Set<String> names = this.functionCatalog.getNames(Function.class);
+			Assert.isTrue(names.contains(this.handler), "Cannot locate function: " + this.handler);
+			FunctionEndpoint endpoint = new FunctionEndpoint(this.handler,
+					this.functionCatalog.lookup(Function.class, this.handler));
+			return route(POST("/**"), request -> this.post(endpoint, request))
+					.andRoute(GET("/**"), request -> this.get(endpoint, request, request.path().substring(1)));
+		}
+
+		List<FunctionEndpoint> endpoints = new ArrayList<>();
+		for (String name : this.functionCatalog.getNames(null)) {
+			try {
+				FunctionInvocationWrapper function = this.functionCatalog.lookup(name);
+				if (function != null) {
+					endpoints.add(new FunctionEndpoint(name, function));
+				}
+			}
+			catch (RuntimeException e) {
+				// such paths are resolved (and fail) when the request arrives
+				if (logger.isDebugEnabled()) {
+					logger.debug("Failed to create route for function '" + name + "'", e);
 				}
-				return ServerResponse.ok().body(result, outputType);
 			}
-			else {
-				Function<Flux<?>, Flux<?>> function = (Function<Flux<?>, Flux<?>>) functionComponent;
-				FunctionWrapper wrapper = RequestProcessor.wrapper(function, null, null);
-				wrapper.headers(request.headers().asHttpHeaders());
-				String argument = (String) request.attribute(WebRequestConstants.ARGUMENT).get();
-				wrapper.argument(Flux.just(argument));
-				return ServerResponse.ok().body(wrapper.function().apply(wrapper.argument()), outputType);
+		}
+		// same precedence as FunctionWebUtils: supplier mapped to the entire path and then
+		// function mapped to the shortest prefix of the path
+		endpoints.sort(Comparator.comparingInt(FunctionEndpoint::getSegments));
+		RouterFunction<ServerResponse> routes = null;
+		for (FunctionEndpoint endpoint : endpoints) {
+			if (endpoint.function.isSupplier()) {
+				routes = and(routes, route(GET("/**").and(request -> endpoint.matches(request.path())),
+						request -> this.get(endpoint, request, null)));
+			}
+		}
+		for (FunctionEndpoint endpoint : endpoints) {
+			if (!endpoint.function.isSupplier()) {
+				routes = and(routes, route(POST("/**").and(request -> endpoint.matchesPrefix(request.path())),
+						request -> this.post(endpoint, request)));
+				routes = and(routes, route(GET("/**").and(request -> endpoint.argument(request.path()) != null),
+						request -> this.get(endpoint, request, endpoint.argument(request.path()))));
 			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Created routes for functions: " + endpoints);
+		}
+		return and(routes, route(POST("/**"), request -> this.post(this.resolve(request), request))
+				.andRoute(GET("/**"), request -> {
+					ResolvedFunction resolved = this.resolve(request);
+					if (resolved.function == null) {
+						return ServerResponse.notFound().build();
+					}
+					Optional<Object> argument = request.attribute(WebRequestConstants.ARGUMENT);
+					return this.get(resolved, request, (String) argument.orElse(null));
+				}));
+	}
+
+	private ResolvedFunction resolve(ServerRequest request) {
+		Object function = this.functionPathIndex.findFunction(request.method(), request.attributes(), request.path());
+		return new ResolvedFunction((FunctionInvocationWrapper) function);
+	}
+
+	@SuppressWarnings({ "unchecked" })
+	private <T> Mono<ServerResponse> post(ResolvedFunction endpoint, ServerRequest request) {
+		FunctionWrapper wrapper = RequestProcessor.wrapper((Function<Flux<?>, Flux<?>>) (Object) endpoint.function, null, null);
+		Mono<ResponseEntity<?>> stream = request.bodyToMono(byte[].class)
+				.flatMap(content -> this.processor.post(wrapper, content, false));
+		return stream.flatMap(entity -> {
+			Publisher<T> body = entity.getBody() instanceof Publisher ? (Publisher<T>) entity.getBody()
+					: (entity.hasBody() ? Mono.just((T) entity.getBody()) : Mono.empty());
+			return status(entity.getStatusCode()).headers(headers -> headers.addAll(entity.getHeaders()))
+					.body(body, endpoint.outputType);
 		});
 	}
+
+	@SuppressWarnings({ "unchecked" })
+	private Mono<ServerResponse> get(ResolvedFunction endpoint, ServerRequest request, String argument) {
+		if (endpoint.function.isSupplier()) {
+			Supplier<? extends Flux<?>> supplier = (Supplier<Flux<?>>) (Object) endpoint.function;
+			FunctionWrapper wrapper = RequestProcessor.wrapper(null, null, supplier);
+			Object result = wrapper.supplier().get();
+			if (!(result instanceof Publisher)) {
+				result = Mono.just(result);
+			}
+			return ServerResponse.ok().body(result, endpoint.outputType);
+		}
+		else {
+			Function<Flux<?>, Flux<?>> function = (Function<Flux<?>, Flux<?>>) (Object) endpoint.function;
+			FunctionWrapper wrapper = RequestProcessor.wrapper(function, null, null);
+			wrapper.headers(request.headers().asHttpHeaders());
+			wrapper.argument(Flux.just(argument));
+			return ServerResponse.ok().body(wrapper.function().apply(wrapper.argument()), endpoint.outputType);
+		}
+	}
+
+	private static RouterFunction<ServerResponse> and(RouterFunction<ServerResponse> routes,
+			RouterFunction<ServerResponse> route) {
+		return routes == null ? route : routes.and(route);
+	}
+
+	/*
+	 * Function resolved when the request arrives (if any) along with what is needed to
+	 * write its output.
+	 */
+	private static class ResolvedFunction {
+
+		protected final FunctionInvocationWrapper function;
+
+		protected final Class<?> outputType;
+
+		ResolvedFunction(FunctionInvocationWrapper function) {
+			this.function = function;
+			this.outputType = function == null
+					? Object.class
+					: FunctionTypeUtils.getRawType(FunctionTypeUtils.getGenericType(function.getOutputType()));
+		}
+	}
+
+	/*
+	 * Function routed by its name.
+	 */
+	private static final class FunctionEndpoint extends ResolvedFunction {
+
+		private final String path;
+
+		FunctionEndpoint(String name, FunctionInvocationWrapper function) {
+			super(function);
+			Assert.notNull(name, "'name' must not be null");
+			Assert.notNull(function, "'function' must not be null");
+			this.path = "/" + name;
+		}
+
+		int getSegments() {
+			return StringUtils.countOccurrencesOf(this.path, "/");
+		}
+
+		boolean matches(String path) {
+			return path.equals(this.path);
+		}
+
+		boolean matchesPrefix(String path) {
+			return path.startsWith(this.path)
+					&& (path.length() == this.path.length() || path.charAt(this.path.length()) == '/');
+		}
+
+		/*
+		 * Rest of the path after the path of this endpoint or null if there is none.
+		 */
+		String argument(String path) {
+			return path.length() > this.path.length() + 1 && this.matchesPrefix(path)
+					? path.substring(this.path.length() + 1)
+					: null;
+		}
+
+		@Override
+		public String toString() {
+			return this.path;
+		}
+	}
 }
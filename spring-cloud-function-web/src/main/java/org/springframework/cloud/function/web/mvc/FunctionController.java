@@ -16,21 +16,40 @@
 
 package org.springframework.cloud.function.web.mvc;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.servlet.http.HttpServletRequest;
 
 import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import org.springframework.cloud.function.context.catalog.ExecutionSchedulers;
+import org.springframework.cloud.function.context.catalog.FunctionTypeUtils;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
 import org.springframework.cloud.function.web.RequestProcessor;
 import org.springframework.cloud.function.web.RequestProcessor.FunctionWrapper;
 import org.springframework.cloud.function.web.constants.WebRequestConstants;
+import org.springframework.cloud.function.web.util.HeaderUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -40,6 +59,7 @@ import org.springframework.web.context.request.WebRequest;
 /**
  * @author Dave Syer
  * @author Mark Fisher
+ * @author Oleg Zhurakousky
  */
 @Component
 public class FunctionController {
@@ -50,27 +70,50 @@ public class FunctionController {
 		this.processor = processor;
 	}
 
+	/**
+	 * Whether the function can be invoked by {@link #postImperative(WebRequest, HttpServletRequest)}
+	 * or {@link #getImperative(HttpServletRequest)}, which is the case for functions which
+	 * neither accept nor produce {@link Publisher} or {@link org.springframework.messaging.Message}.
+	 * @param function the function
+	 * @return true if the function can be invoked synchronously
+	 * @since 3.1
+	 */
+	public static boolean isImperative(Object function) {
+		if (!(function instanceof FunctionInvocationWrapper)) {
+			return false;
+		}
+		FunctionInvocationWrapper wrapper = (FunctionInvocationWrapper) function;
+		if (wrapper.isRoutingFunction() || wrapper.isInputTypePublisher() || wrapper.isOutputTypePublisher()
+				|| wrapper.isInputTypeMessage() || wrapper.isOutputTypeMessage()) {
+			return false;
+		}
+		Class<?> inputType = wrapper.isSupplier() ? Object.class : FunctionTypeUtils.getRawType(wrapper.getInputType());
+		Class<?> outputType = wrapper.isConsumer() ? Object.class : FunctionTypeUtils.getRawType(wrapper.getOutputType());
+		return inputType != null && !MultiValueMap.class.isAssignableFrom(inputType)
+				&& outputType != null && !Stream.class.isAssignableFrom(outputType);
+	}
+
 	@PostMapping(path = "/**", consumes = { MediaType.APPLICATION_FORM_URLENCODED_VALUE,
 			MediaType.MULTIPART_FORM_DATA_VALUE })
 	@ResponseBody
 	public Mono<ResponseEntity<?>> form(WebRequest request) {
 		FunctionWrapper wrapper = wrapper(request);
-		return this.processor.post(wrapper, null, false);
+		return collect(this.processor.post(wrapper, (String) null, false));
 	}
 
 	@PostMapping(path = "/**")
 	@ResponseBody
 	public Mono<ResponseEntity<?>> post(WebRequest request,
-			@RequestBody(required = false) String body) {
+			@RequestBody(required = false) byte[] body) {
 		FunctionWrapper wrapper = wrapper(request);
 		Mono<ResponseEntity<?>> result = this.processor.post(wrapper, body, false);
-		return result;
+		return collect(result);
 	}
 
-	@PostMapping(path = "/**", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@PostMapping(path = "/**", produces = { MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
 	@ResponseBody
 	public Mono<ResponseEntity<Publisher<?>>> postStream(WebRequest request,
-			@RequestBody(required = false) String body) {
+			@RequestBody(required = false) byte[] body) {
 		FunctionWrapper wrapper = wrapper(request);
 		return this.processor.post(wrapper, body, true)
 				.map(response -> ResponseEntity.ok().headers(response.getHeaders())
@@ -81,10 +124,10 @@ public class FunctionController {
 	@ResponseBody
 	public Mono<ResponseEntity<?>> get(WebRequest request) {
 		FunctionWrapper wrapper = wrapper(request);
-		return this.processor.get(wrapper);
+		return collect(this.processor.get(wrapper));
 	}
 
-	@GetMapping(path = "/**", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@GetMapping(path = "/**", produces = { MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
 	@ResponseBody
 	public Mono<ResponseEntity<Publisher<?>>> getStream(WebRequest request) {
 		FunctionWrapper wrapper = wrapper(request);
@@ -92,6 +135,124 @@ public class FunctionController {
 				.headers(response.getHeaders()).body((Publisher<?>) response.getBody()));
 	}
 
+	/**
+	 * Synchronous variant of {@link #post(WebRequest, byte[])} selected by
+	 * {@link FunctionHandlerMapping} for imperative functions (see {@link #isImperative(Object)}).
+	 * The input is read by {@link RequestProcessor#readInput(FunctionWrapper, byte[])} and the
+	 * function is invoked on the servlet thread, so the request goes neither through Reactor
+	 * nor through async dispatch.
+	 * @param request the request
+	 * @param servletRequest the servlet request
+	 * @return response entity
+	 * @throws IOException if the body can not be read
+	 * @since 3.1
+	 */
+	public ResponseEntity<?> postImperative(WebRequest request, HttpServletRequest servletRequest)
+			throws IOException {
+		return this.imperativePost(request, servletRequest).get();
+	}
+
+	/**
+	 * Same as {@link #postImperative(WebRequest, HttpServletRequest)}, except that the function
+	 * is invoked on a virtual thread (the body is still read on the servlet thread).
+	 * @param request the request
+	 * @param servletRequest the servlet request
+	 * @return response entity completed once the function returns
+	 * @throws IOException if the body can not be read
+	 * @since 3.1
+	 */
+	public CompletableFuture<ResponseEntity<?>> postImperativeOnVirtualThread(WebRequest request,
+			HttpServletRequest servletRequest) throws IOException {
+		return CompletableFuture.supplyAsync(this.imperativePost(request, servletRequest), virtualThreadExecutor());
+	}
+
+	/**
+	 * Synchronous variant of {@link #get(WebRequest)} selected by {@link FunctionHandlerMapping}
+	 * for imperative suppliers (see {@link #isImperative(Object)}).
+	 * @param servletRequest the servlet request
+	 * @return response entity
+	 * @since 3.1
+	 */
+	public ResponseEntity<?> getImperative(HttpServletRequest servletRequest) {
+		return this.imperativeGet(servletRequest).get();
+	}
+
+	/**
+	 * Same as {@link #getImperative(HttpServletRequest)}, except that the supplier is invoked
+	 * on a virtual thread.
+	 * @param servletRequest the servlet request
+	 * @return response entity completed once the supplier returns
+	 * @since 3.1
+	 */
+	public CompletableFuture<ResponseEntity<?>> getImperativeOnVirtualThread(HttpServletRequest servletRequest) {
+		return CompletableFuture.supplyAsync(this.imperativeGet(servletRequest), virtualThreadExecutor());
+	}
+
+	/*
+	 * Reads the input (on the calling thread) and returns the invocation of the function.
+	 * Same as RequestProcessor, JSON array sent to a function which does not accept
+	 * Collection is applied element by element.
+	 */
+	private Supplier<ResponseEntity<?>> imperativePost(WebRequest request, HttpServletRequest servletRequest)
+			throws IOException {
+		FunctionInvocationWrapper function = (FunctionInvocationWrapper) servletRequest
+				.getAttribute(WebRequestConstants.FUNCTION);
+		FunctionWrapper wrapper = wrapper(request);
+		Object input = this.processor.readInput(wrapper, StreamUtils.copyToByteArray(servletRequest.getInputStream()));
+		Assert.state(input != null, () -> "Failed to determine input for function call with parameters: '"
+				+ wrapper.params() + "' and headers: `" + wrapper.headers() + "`");
+		HttpHeaders headers = HeaderUtils.sanitize(wrapper.headers());
+		return () -> {
+			Object result;
+			if (input instanceof Collection
+					&& !Collection.class.isAssignableFrom(FunctionTypeUtils.getRawType(function.getInputType()))) {
+				List<Object> results = new ArrayList<>();
+				for (Object element : (Collection<?>) input) {
+					Object elementResult = function.apply(element);
+					if (!function.isConsumer()) {
+						results.add(elementResult);
+					}
+				}
+				result = results;
+			}
+			else {
+				result = function.apply(input);
+			}
+			if (function.isConsumer()) {
+				return ResponseEntity.accepted().build();
+			}
+			return ResponseEntity.ok().headers(headers).body(result);
+		};
+	}
+
+	private Supplier<ResponseEntity<?>> imperativeGet(HttpServletRequest servletRequest) {
+		FunctionInvocationWrapper supplier = (FunctionInvocationWrapper) servletRequest
+				.getAttribute(WebRequestConstants.SUPPLIER);
+		HttpHeaders headers = HeaderUtils.sanitize(new ServletServerHttpRequest(servletRequest).getHeaders());
+		return () -> ResponseEntity.ok().headers(headers).body(supplier.get());
+	}
+
+	private static Executor virtualThreadExecutor() {
+		Executor executor = ExecutionSchedulers.virtualThreadExecutor();
+		Assert.state(executor != null, "Virtual threads are not supported by this JDK");
+		return executor;
+	}
+
+	/*
+	 * Unlike WebFlux, MVC only streams Publisher bodies of handler methods declaring them
+	 * (see postStream(..) and getStream(..)), so Flux body (e.g., streaming media type
+	 * negotiated by RequestProcessor along with other accepted types) is collected here.
+	 */
+	private Mono<ResponseEntity<?>> collect(Mono<ResponseEntity<?>> response) {
+		return response.flatMap(entity -> {
+			if (entity.getBody() instanceof Flux) {
+				return ((Flux<?>) entity.getBody()).collectList()
+						.map(body -> ResponseEntity.status(entity.getStatusCode()).headers(entity.getHeaders()).body(body));
+			}
+			return Mono.just(entity);
+		});
+	}
+
 	private FunctionWrapper wrapper(WebRequest request) {
 		@SuppressWarnings("unchecked")
 		Function<Publisher<?>, Publisher<?>> function = (Function<Publisher<?>, Publisher<?>>) request
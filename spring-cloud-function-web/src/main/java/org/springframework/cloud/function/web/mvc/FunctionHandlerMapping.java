@@ -16,6 +16,7 @@
 
 package org.springframework.cloud.function.web.mvc;
 
+import java.lang.reflect.Method;
 import java.util.HashMap;
 
 import javax.servlet.http.HttpServletRequest;
@@ -25,11 +26,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.cloud.function.context.FunctionCatalog;
+import org.springframework.cloud.function.context.catalog.ExecutionSchedulers;
+import org.springframework.cloud.function.context.catalog.FunctionCatalogEvent;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
 import org.springframework.cloud.function.web.constants.WebRequestConstants;
-import org.springframework.cloud.function.web.util.FunctionWebUtils;
+import org.springframework.cloud.function.web.util.FunctionPathIndex;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
@@ -41,28 +49,66 @@ import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandl
 @Configuration
 @ConditionalOnClass(RequestMappingHandlerMapping.class)
 public class FunctionHandlerMapping extends RequestMappingHandlerMapping
-		implements InitializingBean {
+		implements InitializingBean, ApplicationListener<FunctionCatalogEvent> {
 
-	private final FunctionCatalog functions;
+	private final FunctionPathIndex functionPathIndex;
 
 	private final FunctionController controller;
 
+	/*
+	 * Handler methods of the controller replaced by their synchronous variants for
+	 * imperative functions (only set if enabled).
+	 */
+	private Method postMethod;
+
+	private HandlerMethod imperativePostMethod;
+
+	private Method getMethod;
+
+	private HandlerMethod imperativeGetMethod;
+
 	@Value("${spring.cloud.function.web.path:}")
 	private String prefix = "";
 
+	@Value("${spring.cloud.function.web.imperative:false}")
+	private boolean imperative;
+
+	@Value("${spring.cloud.function.web.imperative-virtual-threads:false}")
+	private boolean virtualThreads;
+
 	@Autowired
 	public FunctionHandlerMapping(FunctionCatalog catalog,
 			FunctionController controller) {
-		this.functions = catalog;
+		this.functionPathIndex = new FunctionPathIndex(catalog);
 		this.logger.info("FunctionCatalog: " + catalog);
 		setOrder(super.getOrder() - 5);
 		this.controller = controller;
 	}
 
+	@Override
+	public void onApplicationEvent(FunctionCatalogEvent event) {
+		this.functionPathIndex.invalidate();
+	}
+
 	@Override
 	public void afterPropertiesSet() {
 		super.afterPropertiesSet();
 		detectHandlerMethods(this.controller);
+		if (this.imperative) {
+			if (this.virtualThreads && ExecutionSchedulers.virtualThreadExecutor() == null) {
+				this.logger.warn("Imperative functions are invoked on the servlet thread, since virtual threads "
+						+ "are not supported by this JDK");
+				this.virtualThreads = false;
+			}
+			Class<?> controllerType = ClassUtils.getUserClass(this.controller);
+			this.postMethod = ReflectionUtils.findMethod(controllerType, "post", WebRequest.class, byte[].class);
+			this.imperativePostMethod = createHandlerMethod(this.controller, ReflectionUtils.findMethod(controllerType,
+					this.virtualThreads ? "postImperativeOnVirtualThread" : "postImperative",
+					WebRequest.class, HttpServletRequest.class));
+			this.getMethod = ReflectionUtils.findMethod(controllerType, "get", WebRequest.class);
+			this.imperativeGetMethod = createHandlerMethod(this.controller, ReflectionUtils.findMethod(controllerType,
+					this.virtualThreads ? "getImperativeOnVirtualThread" : "getImperative", HttpServletRequest.class));
+		}
 		while (this.prefix.endsWith("/")) {
 			this.prefix = this.prefix.substring(0, this.prefix.length() - 1);
 		}
@@ -91,18 +137,36 @@ public class FunctionHandlerMapping extends RequestMappingHandlerMapping
 			path = path.substring(this.prefix.length());
 		}
 
-		Object function = FunctionWebUtils.findFunction(HttpMethod.resolve(request.getMethod()),
-				this.functions, new HttpRequestAttributeDelegate(request), path);
+		Object function = this.functionPathIndex.findFunction(HttpMethod.resolve(request.getMethod()),
+				new HttpRequestAttributeDelegate(request), path);
 		if (function != null) {
 			if (this.logger.isDebugEnabled()) {
 				this.logger.debug("Found function for GET: " + path);
 			}
 			request.setAttribute(WebRequestConstants.HANDLER, function);
-			return handler;
+			return this.getImperativeHandlerMethod(handler, function);
 		}
 		return null;
 	}
 
+	/*
+	 * POST to a function and GET from a supplier are handled synchronously (see
+	 * FunctionController.postImperative(..)) if the function is imperative.
+	 */
+	private HandlerMethod getImperativeHandlerMethod(HandlerMethod handler, Object function) {
+		if (this.postMethod == null || !FunctionController.isImperative(function)) {
+			return handler;
+		}
+		boolean supplier = ((FunctionInvocationWrapper) function).isSupplier();
+		if (!supplier && handler.getMethod().equals(this.postMethod)) {
+			return this.imperativePostMethod;
+		}
+		if (supplier && handler.getMethod().equals(this.getMethod)) {
+			return this.imperativeGetMethod;
+		}
+		return handler;
+	}
+
 	@SuppressWarnings("serial")
 	private static class HttpRequestAttributeDelegate extends HashMap<String, Object> {
 		private final HttpServletRequest request;
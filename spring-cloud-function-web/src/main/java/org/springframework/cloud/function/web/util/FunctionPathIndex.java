@@ -0,0 +1,276 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.function.web.util;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cloud.function.context.FunctionCatalog;
+import org.springframework.cloud.function.web.constants.WebRequestConstants;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Index of request paths to functions (and suppliers) of {@link FunctionCatalog} which
+ * resolves the same functions as {@link FunctionWebUtils#findFunction(HttpMethod, FunctionCatalog, Map, String)},
+ * but without calling the catalog for every request.
+ * <br><br>
+ * Names of the functions known to the catalog are kept in a trie of path segments (a name
+ * may contain '/'), so resolving a path walks it only once. A function (or supplier) is
+ * looked up in the catalog the first time a path is matched to its name. Paths which are not resolved
+ * by the trie (e.g., composed function definitions or POJO functions which are not listed
+ * by the catalog) are resolved by the catalog once and the result is remembered (up to
+ * {@value #RESOLUTION_CACHE_LIMIT} paths). The index is rebuilt on first use after
+ * {@link #invalidate()}, which is expected to be called on every
+ * {@link org.springframework.cloud.function.context.catalog.FunctionCatalogEvent}.
+ *
+ * @author Oleg Zhurakousky
+ * @since 3.1
+ */
+public final class FunctionPathIndex {
+
+	private static final int RESOLUTION_CACHE_LIMIT = 256;
+
+	private static Log logger = LogFactory.getLog(FunctionPathIndex.class);
+
+	private final FunctionCatalog functionCatalog;
+
+	private final AtomicLong generation = new AtomicLong();
+
+	private volatile Index index;
+
+	public FunctionPathIndex(FunctionCatalog functionCatalog) {
+		this.functionCatalog = functionCatalog;
+	}
+
+	/**
+	 * Discards the index, so it is rebuilt on next use.
+	 */
+	public void invalidate() {
+		this.generation.incrementAndGet();
+	}
+
+	/**
+	 * Same as {@link FunctionWebUtils#findFunction(HttpMethod, FunctionCatalog, Map, String)}.
+	 * @param method HTTP method (GET or POST)
+	 * @param attributes request attributes to store function (or supplier) and its argument in
+	 * @param path request path
+	 * @return function or supplier mapped to the path or null
+	 */
+	public Object findFunction(HttpMethod method, Map<String, Object> attributes, String path) {
+		if (!method.equals(HttpMethod.GET) && !method.equals(HttpMethod.POST)) {
+			throw new IllegalStateException("HTTP method '" + method + "' is not supported;");
+		}
+		path = path.startsWith("/") ? path.substring(1) : path;
+		Index index = this.getIndex();
+		Resolution resolution = index.root.resolve(method, path, this.functionCatalog);
+		if (resolution == null) {
+			String key = method + " " + path;
+			resolution = index.resolutions.get(key);
+			if (resolution == null) {
+				resolution = this.resolve(method, path);
+				if (index.resolutions.size() < RESOLUTION_CACHE_LIMIT) {
+					index.resolutions.put(key, resolution);
+				}
+			}
+		}
+		return resolution.apply(attributes);
+	}
+
+	private Index getIndex() {
+		long generation = this.generation.get();
+		Index index = this.index;
+		if (index == null || index.generation != generation) {
+			// if the catalog changes while building, the index is rebuilt on next use
+			index = new Index(generation, this.buildTrie());
+			this.index = index;
+		}
+		return index;
+	}
+
+	private Node buildTrie() {
+		Set<String> names = new LinkedHashSet<>(this.functionCatalog.getNames(null));
+		names.add("");
+		Node root = new Node();
+		for (String name : names) {
+			Node node = root;
+			for (String segment : name.split("/", -1)) {
+				node = node.children.computeIfAbsent(segment, key -> new Node());
+			}
+			node.name = name;
+		}
+		return root;
+	}
+
+	private Resolution resolve(HttpMethod method, String path) {
+		Map<String, Object> attributes = new HashMap<>();
+		FunctionWebUtils.findFunction(method, this.functionCatalog, attributes, path);
+		return new Resolution(attributes.get(WebRequestConstants.SUPPLIER),
+				attributes.get(WebRequestConstants.FUNCTION), (String) attributes.get(WebRequestConstants.ARGUMENT));
+	}
+
+	private static final class Index {
+
+		private final long generation;
+
+		private final Node root;
+
+		private final Map<String, Resolution> resolutions = new ConcurrentHashMap<>();
+
+		Index(long generation, Node root) {
+			this.generation = generation;
+			this.root = root;
+		}
+	}
+
+	/*
+	 * Node of the trie of path segments. Its children and name are not modified once the
+	 * trie is built, while its supplier and function are looked up on first use.
+	 */
+	private static final class Node {
+
+		private static final Object UNRESOLVED = new Object();
+
+		private final Map<String, Node> children = new HashMap<>();
+
+		/*
+		 * Name of the function which ends at this node (null if none does).
+		 */
+		private String name;
+
+		private volatile Object supplier = UNRESOLVED;
+
+		private volatile Object function = UNRESOLVED;
+
+		/*
+		 * Same order as FunctionWebUtils: supplier mapped to the entire path (GET only) and
+		 * then function mapped to the shortest prefix of the path, where the rest of the
+		 * path is the argument. Returns null if the path is not resolved.
+		 */
+		Resolution resolve(HttpMethod method, String path, FunctionCatalog functionCatalog) {
+			if (method.equals(HttpMethod.GET)) {
+				Node node = this.find(path);
+				Object supplier = node == null ? null : node.getSupplier(functionCatalog);
+				if (supplier != null) {
+					return new Resolution(supplier, null, null);
+				}
+			}
+			Node node = this;
+			int start = 0;
+			while (node != null) {
+				int end = path.indexOf('/', start);
+				node = node.children.get(end < 0 ? path.substring(start) : path.substring(start, end));
+				Object function = node == null ? null : node.getFunction(functionCatalog);
+				if (function != null) {
+					return new Resolution(null, function, end < 0 ? null : path.substring(end + 1));
+				}
+				if (end < 0) {
+					break;
+				}
+				start = end + 1;
+			}
+			return null;
+		}
+
+		private Node find(String path) {
+			Node node = this;
+			int start = 0;
+			while (node != null) {
+				int end = path.indexOf('/', start);
+				node = node.children.get(end < 0 ? path.substring(start) : path.substring(start, end));
+				if (end < 0) {
+					break;
+				}
+				start = end + 1;
+			}
+			return node;
+		}
+
+		private Object getSupplier(FunctionCatalog functionCatalog) {
+			Object supplier = this.supplier;
+			if (supplier == UNRESOLVED) {
+				supplier = this.lookup(Supplier.class, functionCatalog);
+				this.supplier = supplier;
+			}
+			return supplier;
+		}
+
+		private Object getFunction(FunctionCatalog functionCatalog) {
+			Object function = this.function;
+			if (function == UNRESOLVED) {
+				function = this.lookup(Function.class, functionCatalog);
+				this.function = function;
+			}
+			return function;
+		}
+
+		private Object lookup(Class<?> type, FunctionCatalog functionCatalog) {
+			if (this.name == null) {
+				return null;
+			}
+			try {
+				return functionCatalog.lookup(type, this.name);
+			}
+			catch (RuntimeException e) {
+				// such paths are resolved (and fail) the same way as without the index
+				if (logger.isDebugEnabled()) {
+					logger.debug("Failed to resolve function '" + this.name + "'", e);
+				}
+				return null;
+			}
+		}
+	}
+
+	private static final class Resolution {
+
+		private final Object supplier;
+
+		private final Object function;
+
+		private final String argument;
+
+		Resolution(Object supplier, Object function, String argument) {
+			this.supplier = supplier;
+			this.function = function;
+			this.argument = argument;
+		}
+
+		Object apply(Map<String, Object> attributes) {
+			if (this.supplier != null) {
+				attributes.put(WebRequestConstants.SUPPLIER, this.supplier);
+				return this.supplier;
+			}
+			if (this.function != null) {
+				attributes.put(WebRequestConstants.FUNCTION, this.function);
+				if (this.argument != null) {
+					attributes.put(WebRequestConstants.ARGUMENT, this.argument);
+				}
+			}
+			return this.function;
+		}
+	}
+
+}
@@ -17,6 +17,8 @@
 package org.springframework.cloud.function.web.flux;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -52,12 +54,14 @@ import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.util.Assert;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.StringUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * @author Dave Syer
@@ -183,6 +187,19 @@ public class HttpPostIntegrationTests {
 		assertThat(result.getBody()).isEqualTo("[\"(FOO)\",\"(BAR)\"]");
 	}
 
+	@Test
+	@DirtiesContext
+	public void headersNdjson() throws Exception {
+		// message headers become response headers, so the output can not be streamed
+		ResponseEntity<String> result = this.rest.exchange(RequestEntity
+				.post(new URI("/headers")).contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_NDJSON)
+				.body("[\"foo\",\"bar\"]"), String.class);
+		assertThat(result.getHeaders().getFirst("foo")).isEqualTo("bar");
+		assertThat(result.getHeaders()).doesNotContainKey("id");
+		assertThat(result.getBody()).contains("\"(FOO)\"", "\"(BAR)\"");
+	}
+
 	@Test
 	@DirtiesContext
 	public void uppercaseSingleValue() throws Exception {
@@ -214,6 +231,60 @@ public class HttpPostIntegrationTests {
 				.isEqualTo("[{\"value\":\"FOO\"},{\"value\":\"BAR\"}]");
 	}
 
+	@Test
+	@DirtiesContext
+	public void uppercaseFoosNdjson() throws Exception {
+		ResponseEntity<String> result = this.rest.exchange(RequestEntity
+				.post(new URI("/upFoos")).contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_NDJSON)
+				.body("[{\"value\":\"foo\"},{\"value\":\"bar\"}]"), String.class);
+		assertThat(result.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_NDJSON)).isTrue();
+		assertThat(result.getBody())
+				.isEqualTo("{\"value\":\"FOO\"}\n{\"value\":\"BAR\"}\n");
+	}
+
+	@Test
+	@DirtiesContext
+	public void octetStreamWithCharset() throws Exception {
+		// read as bytes, since the function does not accept String, and decoded with the charset
+		ResponseEntity<String> result = this.rest.exchange(RequestEntity
+				.post(new URI("/bareUpFoos"))
+				.contentType(MediaType.valueOf("application/octet-stream;charset=ISO-8859-1"))
+				.body("{\"value\":\"h\u00e9llo\"}".getBytes(StandardCharsets.ISO_8859_1)), String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody()).isEqualTo("{\"value\":\"H\u00c9LLO\"}");
+	}
+
+	@Test
+	@DirtiesContext
+	public void failureMidStreamNdjson() throws Exception {
+		// the response is already committed when the element fails, so the stream is
+		// terminated instead of the failed element being skipped
+		Flux<String> body = WebTestClient.bindToServer().baseUrl("http://localhost:" + this.port).build()
+				.post().uri("/failing").contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_NDJSON)
+				.bodyValue("[\"foo\",\"fail\",\"bar\"]")
+				.exchange()
+				.expectStatus().isOk()
+				.returnResult(String.class).getResponseBody();
+		List<String> received = new ArrayList<>();
+		assertThatThrownBy(() -> body.doOnNext(received::add).blockLast(Duration.ofSeconds(10)))
+			.isNotNull();
+		assertThat(received).anyMatch(value -> value.contains("FOO")).noneMatch(value -> value.contains("BAR"));
+	}
+
+	@Test
+	@DirtiesContext
+	public void failureAggregated() throws Exception {
+		// JSON output is collected, so the failed element is skipped
+		ResponseEntity<String> result = this.rest.exchange(RequestEntity
+				.post(new URI("/failing")).contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON)
+				.body("[\"foo\",\"fail\",\"bar\"]"), String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody()).contains("FOO", "BAR").doesNotContain("FAIL");
+	}
+
 	@Test
 	@DirtiesContext
 	public void uppercaseFoo() throws Exception {
@@ -407,6 +478,18 @@ public class HttpPostIntegrationTests {
 					.map(value -> "(" + value.trim().toUpperCase() + ")");
 		}
 
+		@Bean
+		public Function<Flux<String>, Flux<String>> failing() {
+			// elements are delayed, so the response is committed before the failure
+			return flux -> flux.concatMap(value -> Mono.delay(Duration.ofMillis(100)).thenReturn(value))
+					.map(value -> {
+						if ("fail".equals(value)) {
+							throw new IllegalStateException("Failed to process: " + value);
+						}
+						return value.toUpperCase();
+					});
+		}
+
 		@Bean
 		public Function<String, String> bareUppercase() {
 			return value -> "(" + value.trim().toUpperCase() + ")";
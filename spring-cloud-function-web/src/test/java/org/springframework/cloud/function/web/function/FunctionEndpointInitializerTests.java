@@ -17,6 +17,7 @@
 package org.springframework.cloud.function.web.function;
 
 import java.net.URI;
+import java.util.Collections;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -27,9 +28,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.SpringBootConfiguration;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.cloud.function.context.FunctionRegistration;
+import org.springframework.cloud.function.context.FunctionRegistry;
 import org.springframework.cloud.function.context.FunctionType;
 import org.springframework.cloud.function.context.FunctionalSpringApplication;
+import org.springframework.cloud.function.context.catalog.FunctionRegistrationEvent;
 import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -80,6 +84,19 @@ public class FunctionEndpointInitializerTests {
 		assertThat(response.getBody()).isEqualTo("desserts");
 	}
 
+	@Test
+	public void testFunctionMappingWithLongerPath() throws Exception {
+		FunctionalSpringApplication.run(ApplicationConfiguration.class);
+		TestRestTemplate testRestTemplate = new TestRestTemplate();
+		String port = System.getProperty("server.port");
+		Thread.sleep(200);
+		ResponseEntity<String> response = testRestTemplate
+				.postForEntity(new URI("http://localhost:" + port + "/uppercase/foo"), "stressed", String.class);
+		assertThat(response.getBody()).isEqualTo("STRESSED");
+		response = testRestTemplate.postForEntity(new URI("http://localhost:" + port + "/uppercasefoo"), "stressed", String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+	}
+
 	@Test
 	public void testCompositionFunctionMapping() throws Exception {
 		FunctionalSpringApplication.run(ApplicationConfiguration.class);
@@ -114,6 +131,27 @@ public class FunctionEndpointInitializerTests {
 		assertThat(response.getBody()).isEqualTo("Jim Lahey");
 	}
 
+	@Test
+	public void testReRegisteredFunction() throws Exception {
+		ConfigurableApplicationContext context = FunctionalSpringApplication.run(ApplicationConfiguration.class);
+		TestRestTemplate testRestTemplate = new TestRestTemplate();
+		String port = System.getProperty("server.port");
+		Thread.sleep(200);
+		ResponseEntity<String> response = testRestTemplate
+				.postForEntity(new URI("http://localhost:" + port + "/reverse"), "stressed", String.class);
+		assertThat(response.getBody()).isEqualTo("desserts");
+
+		Function<String, String> reverse = s -> "reversed: " + new StringBuilder(s).reverse().toString();
+		context.getBean(FunctionRegistry.class).register(new FunctionRegistration<>(reverse, "reverse")
+				.type(FunctionType.from(String.class).to(String.class)));
+		context.publishEvent(new FunctionRegistrationEvent(reverse, Function.class, Collections.singleton("reverse")));
+
+		response = testRestTemplate.postForEntity(new URI("http://localhost:" + port + "/reverse"), "stressed", String.class);
+		assertThat(response.getBody()).isEqualTo("reversed: desserts");
+		response = testRestTemplate.getForEntity(new URI("http://localhost:" + port + "/reverse/stressed"), String.class);
+		assertThat(response.getBody()).isEqualTo("reversed: desserts");
+		context.close();
+	}
 
 	@SpringBootConfiguration
 	protected static class ApplicationConfiguration
@@ -17,6 +17,7 @@
 package org.springframework.cloud.function.web.mvc;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -111,6 +112,15 @@ public class HttpPostIntegrationTests {
 		assertThat(result.getBody()).isEqualTo(null);
 	}
 
+	@Test
+	public void bytes() throws Exception {
+		ResponseEntity<String> result = this.rest.exchange(RequestEntity
+				.post(new URI("/byteCount")).contentType(MediaType.TEXT_PLAIN)
+				.body("h\u00e9llo".getBytes(StandardCharsets.UTF_8)), String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody()).isEqualTo("6");
+	}
+
 	@Test
 	public void addFoos() throws Exception {
 		ResponseEntity<String> result = this.rest.exchange(RequestEntity
@@ -354,6 +364,11 @@ public class HttpPostIntegrationTests {
 					.map(value -> "(" + value.trim().toUpperCase() + ")");
 		}
 
+		@Bean
+		public Function<byte[], Integer> byteCount() {
+			return value -> value.length;
+		}
+
 		@Bean
 		public Function<String, String> bareUppercase() {
 			return value -> "(" + value.trim().toUpperCase() + ")";
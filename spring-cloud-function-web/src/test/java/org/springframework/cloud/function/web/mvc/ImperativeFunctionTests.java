@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.function.web.mvc;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cloud.function.web.RestApplication;
+import org.springframework.cloud.function.web.mvc.HttpPostIntegrationTests.Foo;
+import org.springframework.cloud.function.web.mvc.ImperativeFunctionTests.ApplicationConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *
+ * @author Oleg Zhurakousky
+ *
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = { "spring.main.web-application-type=servlet",
+		"spring.cloud.function.web.imperative=true" })
+@ContextConfiguration(classes = { RestApplication.class, ApplicationConfiguration.class })
+public class ImperativeFunctionTests {
+
+	@Autowired
+	private TestRestTemplate rest;
+
+	@Autowired
+	private FunctionHandlerMapping functionHandlerMapping;
+
+	@Autowired
+	private ApplicationConfiguration test;
+
+	@BeforeEach
+	public void init() {
+		this.test.list.clear();
+	}
+
+	@Test
+	public void handlerMethods() throws Exception {
+		assertThat(this.handlerMethod("POST", "/upFoo")).isEqualTo("postImperative");
+		assertThat(this.handlerMethod("POST", "/updates")).isEqualTo("postImperative");
+		assertThat(this.handlerMethod("GET", "/word")).isEqualTo("getImperative");
+		assertThat(this.handlerMethod("GET", "/upFoo/foo")).isEqualTo("get");
+		assertThat(this.handlerMethod("POST", "/reactiveUppercase")).isEqualTo("post");
+		assertThat(this.handlerMethod("GET", "/words")).isEqualTo("get");
+	}
+
+	@Test
+	public void pojo() throws Exception {
+		ResponseEntity<String> result = this.rest.exchange(RequestEntity
+				.post(new URI("/upFoo")).contentType(MediaType.APPLICATION_JSON)
+				.body("{\"value\":\"foo\"}"), String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody()).isEqualTo("{\"value\":\"FOO\"}");
+	}
+
+	@Test
+	public void pojoArray() throws Exception {
+		ResponseEntity<String> result = this.rest.exchange(RequestEntity
+				.post(new URI("/upFoo")).contentType(MediaType.APPLICATION_JSON)
+				.body("[{\"value\":\"foo\"},{\"value\":\"bar\"}]"), String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody()).isEqualTo("[{\"value\":\"FOO\"},{\"value\":\"BAR\"}]");
+	}
+
+	@Test
+	public void text() throws Exception {
+		ResponseEntity<String> result = this.rest.exchange(RequestEntity
+				.post(new URI("/uppercase")).contentType(MediaType.valueOf("text/plain;charset=UTF-8"))
+				.body("h\u00e9llo"), String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody()).isEqualTo("H\u00c9LLO");
+	}
+
+	@Test
+	public void textWithCharset() throws Exception {
+		ResponseEntity<String> result = this.rest.exchange(RequestEntity
+				.post(new URI("/uppercase")).contentType(MediaType.valueOf("text/plain;charset=ISO-8859-1"))
+				.body("h\u00e9llo".getBytes(StandardCharsets.ISO_8859_1)), String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody()).isEqualTo("H\u00c9LLO");
+	}
+
+	@Test
+	public void consumer() throws Exception {
+		ResponseEntity<String> result = this.rest.exchange(RequestEntity
+				.post(new URI("/updates")).contentType(MediaType.TEXT_PLAIN)
+				.body("one"), String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+		assertThat(this.test.list).containsExactly("one");
+	}
+
+	@Test
+	public void supplier() throws Exception {
+		ResponseEntity<String> result = this.rest.exchange(RequestEntity
+				.get(new URI("/word")).build(), String.class);
+		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(result.getBody()).isEqualTo("foo");
+	}
+
+	private String handlerMethod(String method, String path) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+		return ((HandlerMethod) this.functionHandlerMapping.getHandler(request).getHandler()).getMethod().getName();
+	}
+
+	@EnableAutoConfiguration
+	@TestConfiguration
+	public static class ApplicationConfiguration {
+
+		private List<String> list = new ArrayList<>();
+
+		@Bean
+		public Function<Foo, Foo> upFoo() {
+			return value -> new Foo(value.getValue().toUpperCase());
+		}
+
+		@Bean
+		public Function<String, String> uppercase() {
+			return value -> value.toUpperCase();
+		}
+
+		@Bean
+		public Function<Flux<String>, Flux<String>> reactiveUppercase() {
+			return flux -> flux.map(String::toUpperCase);
+		}
+
+		@Bean
+		public Consumer<String> updates() {
+			return value -> this.list.add(value);
+		}
+
+		@Bean
+		public Supplier<String> word() {
+			return () -> "foo";
+		}
+
+		@Bean
+		public Supplier<Flux<String>> words() {
+			return () -> Flux.just("foo", "bar");
+		}
+
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.function.web.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.function.context.FunctionRegistration;
+import org.springframework.cloud.function.context.FunctionType;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
+import org.springframework.cloud.function.context.config.JsonMessageConverter;
+import org.springframework.cloud.function.json.JacksonMapper;
+import org.springframework.cloud.function.web.constants.WebRequestConstants;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.http.HttpMethod;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *
+ * @author Oleg Zhurakousky
+ *
+ */
+public class FunctionPathIndexTests {
+
+	private CountingFunctionRegistry functionRegistry;
+
+	private FunctionPathIndex functionPathIndex;
+
+	@BeforeEach
+	public void before() {
+		JacksonMapper jsonMapper = new JacksonMapper(new ObjectMapper());
+		List<MessageConverter> messageConverters = new ArrayList<>();
+		messageConverters.add(new JsonMessageConverter(jsonMapper));
+		messageConverters.add(new StringMessageConverter());
+		this.functionRegistry = new CountingFunctionRegistry(new CompositeMessageConverter(messageConverters), jsonMapper);
+		this.functionRegistry.register(new FunctionRegistration<Function<String, String>>(String::toUpperCase, "uppercase")
+				.type(FunctionType.from(String.class).to(String.class)));
+		this.functionRegistry.register(new FunctionRegistration<Function<String, String>>(
+				value -> new StringBuilder(value).reverse().toString(), "reverse", "post/more")
+				.type(FunctionType.from(String.class).to(String.class)));
+		this.functionRegistry.register(new FunctionRegistration<Supplier<String>>(() -> "hello", "hello")
+				.type(FunctionType.supplier(String.class)));
+		this.functionPathIndex = new FunctionPathIndex(this.functionRegistry);
+	}
+
+	@Test
+	public void testFunctionAndArgument() {
+		Map<String, Object> attributes = new HashMap<>();
+		Object function = this.functionPathIndex.findFunction(HttpMethod.GET, attributes, "/uppercase/foo/bar");
+		assertThat(((FunctionInvocationWrapper) function).getFunctionDefinition()).isEqualTo("uppercase");
+		assertThat(attributes.get(WebRequestConstants.FUNCTION)).isSameAs(function);
+		assertThat(attributes.get(WebRequestConstants.ARGUMENT)).isEqualTo("foo/bar");
+
+		attributes.clear();
+		function = this.functionPathIndex.findFunction(HttpMethod.POST, attributes, "/post/more");
+		assertThat(((FunctionInvocationWrapper) function).getFunctionDefinition()).isEqualTo("post/more");
+		assertThat(attributes).doesNotContainKey(WebRequestConstants.ARGUMENT);
+	}
+
+	@Test
+	public void testSupplier() {
+		Map<String, Object> attributes = new HashMap<>();
+		Object supplier = this.functionPathIndex.findFunction(HttpMethod.GET, attributes, "/hello");
+		assertThat(((FunctionInvocationWrapper) supplier).getFunctionDefinition()).isEqualTo("hello");
+		assertThat(attributes.get(WebRequestConstants.SUPPLIER)).isSameAs(supplier);
+	}
+
+	@Test
+	public void testOnlyMatchedFunctionsAreLookedUp() {
+		Map<String, Object> attributes = new HashMap<>();
+		Object function = this.functionPathIndex.findFunction(HttpMethod.POST, attributes, "/uppercase");
+		assertThat(((FunctionInvocationWrapper) function).getFunctionDefinition()).isEqualTo("uppercase");
+		assertThat(this.functionRegistry.lookups.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testNoCatalogLookupsOnceIndexed() {
+		this.functionPathIndex.findFunction(HttpMethod.POST, new HashMap<>(), "/uppercase");
+		this.functionPathIndex.findFunction(HttpMethod.POST, new HashMap<>(), "/uppercase|reverse");
+		this.functionPathIndex.findFunction(HttpMethod.POST, new HashMap<>(), "/a/b/c/d/e");
+		int lookups = this.functionRegistry.lookups.get();
+
+		for (int i = 0; i < 10; i++) {
+			assertThat(this.functionPathIndex.findFunction(HttpMethod.POST, new HashMap<>(), "/uppercase")).isNotNull();
+			assertThat(this.functionPathIndex.findFunction(HttpMethod.POST, new HashMap<>(), "/uppercase|reverse")).isNotNull();
+			assertThat(this.functionPathIndex.findFunction(HttpMethod.POST, new HashMap<>(), "/a/b/c/d/e")).isNull();
+		}
+		assertThat(this.functionRegistry.lookups.get()).isEqualTo(lookups);
+
+		this.functionRegistry.register(new FunctionRegistration<Function<String, String>>(String::toLowerCase, "a/b")
+				.type(FunctionType.from(String.class).to(String.class)));
+		this.functionPathIndex.invalidate();
+		Map<String, Object> attributes = new HashMap<>();
+		assertThat(this.functionPathIndex.findFunction(HttpMethod.POST, attributes, "/a/b/c/d/e")).isNotNull();
+		assertThat(attributes.get(WebRequestConstants.ARGUMENT)).isEqualTo("c/d/e");
+	}
+
+	private static class CountingFunctionRegistry extends SimpleFunctionRegistry {
+
+		private final AtomicInteger lookups = new AtomicInteger();
+
+		CountingFunctionRegistry(CompositeMessageConverter messageConverter, JacksonMapper jsonMapper) {
+			super(new DefaultConversionService(), messageConverter, jsonMapper);
+		}
+
+		@Override
+		public <T> T lookup(Class<?> type, String definition, String... acceptedOutputTypes) {
+			this.lookups.incrementAndGet();
+			return super.lookup(type, definition, acceptedOutputTypes);
+		}
+	}
+
+}